@@ -2,8 +2,10 @@ package ru.practicum.explore;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class MainServer {
     public static void main(String[] args) {
         SpringApplication.run(MainServer.class, args);
@@ -66,7 +66,7 @@ public class CompilationServiceImpl implements CompilationService {
         comp = compilationRepository.saveAndFlush(comp);
 
         if (dto.getEvents() != null && !dto.getEvents().isEmpty()) {
-            List<Event> events = eventRepository.findAllById(dto.getEvents());
+            List<Event> events = eventRepository.findAllByIdIn(dto.getEvents());
             if (events.size() != dto.getEvents().size()) {
                 throw new EntityNotFoundException();
             }
@@ -1,10 +1,12 @@
 package ru.practicum.explore.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import ru.practicum.explore.client.StatsClient;
+import ru.practicum.explore.client.WireFormat;
 
 @Configuration
 public class StatsClientConfig {
@@ -12,8 +14,14 @@ public class StatsClientConfig {
     @Value("${stats-service.url}")
     private String statsUrl;
 
+    @Value("${stats-service.compression.min-request-bytes:" + StatsClient.DEFAULT_MIN_COMPRESSED_REQUEST_BYTES + "}")
+    private int minCompressedRequestBytes;
+
+    @Value("${stats-service.wire-format:JSON}")
+    private WireFormat wireFormat;
+
     @Bean
-    public StatsClient statsClient(RestTemplateBuilder builder) {
-        return new StatsClient(statsUrl, builder);
+    public StatsClient statsClient(RestTemplateBuilder builder, MeterRegistry meterRegistry) {
+        return new StatsClient(statsUrl, builder, minCompressedRequestBytes, wireFormat, meterRegistry);
     }
 }
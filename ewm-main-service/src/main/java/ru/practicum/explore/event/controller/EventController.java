@@ -2,6 +2,8 @@ package ru.practicum.explore.event.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +14,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import ru.practicum.explore.common.exception.BadRequestException;
+import ru.practicum.explore.event.dto.EventPage;
 import ru.practicum.explore.event.dto.NewEventDto;
 import ru.practicum.explore.event.dto.PatchEventDto;
 import ru.practicum.explore.event.dto.ResponseEventDto;
@@ -29,6 +32,9 @@ import java.util.List;
 @RequestMapping
 public class EventController {
 
+    /* курсор следующей страницы; передаётся обратно параметром cursor вместо from */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final EventService eventService;
 
     @PostMapping("/users/{userId}/events")
@@ -49,9 +55,10 @@ public class EventController {
     @GetMapping("/users/{userId}/events")
     public ResponseEntity<Collection<ResponseEventDto>> getUserEvents(@PathVariable long userId,
                                                                       @RequestParam(defaultValue = "0") @Min(0) Integer from,
-                                                                      @RequestParam(defaultValue = "10") @Positive Integer size) {
+                                                                      @RequestParam(defaultValue = "10") @Positive Integer size,
+                                                                      @RequestParam(required = false) String cursor) {
 
-        return ResponseEntity.ok(eventService.getUserEvents(userId, from, size));
+        return withCursor(eventService.getUserEvents(userId, from, size, cursor));
     }
 
     @GetMapping("/users/{userId}/events/{eventId}")
@@ -70,7 +77,7 @@ public class EventController {
     }
 
     @GetMapping("/events")
-    public ResponseEntity<Collection<ResponseEventDto>> findPublicEvents(
+    public ResponseEntity<? extends Collection<?>> findPublicEvents(
             @RequestParam(required = false) String text,
             @RequestParam(required = false) List<Long> categories,
             @RequestParam(required = false) Boolean paid,
@@ -82,10 +89,15 @@ public class EventController {
             @RequestParam(required = false, defaultValue = "EVENT_DATE") String sort,
             @RequestParam(defaultValue = "0") @Min(0) Integer from,
             @RequestParam(defaultValue = "10") @Positive Integer size,
+            @RequestParam(required = false) @DecimalMin("-90") @DecimalMax("90") Double lat,
+            @RequestParam(required = false) @DecimalMin("-180") @DecimalMax("180") Double lon,
+            @RequestParam(defaultValue = "10") @Positive @DecimalMax("1000") Double radius,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "FULL") String view,
             HttpServletRequest request) {
 
-        return ResponseEntity.ok(eventService.findEvents(text, categories, paid,
-                rangeStart, rangeEnd, onlyAvailable, sort, from, size, request));
+        return withCursor(eventService.findEvents(text, categories, paid, rangeStart, rangeEnd, onlyAvailable,
+                sort, from, size, lat, lon, radius, cursor, view, request));
     }
 
     @GetMapping("/events/{id}")
@@ -105,7 +117,8 @@ public class EventController {
             @RequestParam(required = false)
             @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeEnd,
             @RequestParam(defaultValue = "0") @Min(0) Integer from,
-            @RequestParam(defaultValue = "10") @Positive Integer size) {
+            @RequestParam(defaultValue = "10") @Positive Integer size,
+            @RequestParam(required = false) String cursor) {
 
         // Валидация дат
         if (rangeStart != null && rangeEnd != null && rangeStart.isAfter(rangeEnd)) {
@@ -115,8 +128,8 @@ public class EventController {
         // Дефолтные значения дат, если не указаны
         LocalDateTime startDate = rangeStart != null ? rangeStart : LocalDateTime.now().minusYears(1);
         LocalDateTime endDate = rangeEnd != null ? rangeEnd : LocalDateTime.now().plusYears(1);
-        return ResponseEntity.ok(eventService.findAdminEvents(users, states, categories,
-                startDate, endDate, from, size));
+        return withCursor(eventService.findAdminEvents(users, states, categories,
+                startDate, endDate, from, size, cursor));
     }
 
     @PatchMapping("/admin/events/{eventId}")
@@ -146,4 +159,12 @@ public class EventController {
         dto.setStateAction("REJECT_EVENT");
         return ResponseEntity.ok(eventService.changeEventByAdmin(eventId, dto));
     }
+
+    private static <T> ResponseEntity<Collection<T>> withCursor(EventPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.events());
+    }
 }
@@ -0,0 +1,9 @@
+package ru.practicum.explore.event.dto;
+
+import java.util.List;
+
+/**
+ * Страница выдачи событий и курсор следующей страницы; nextCursor == null — дальше страниц нет.
+ */
+public record EventPage<T>(List<T> events, String nextCursor) {
+}
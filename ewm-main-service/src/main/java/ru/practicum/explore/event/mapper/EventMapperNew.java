@@ -8,6 +8,7 @@ import ru.practicum.explore.event.dto.*;
 import ru.practicum.explore.event.model.Event;
 import ru.practicum.explore.event.model.EventState;
 import ru.practicum.explore.event.model.Location;
+import ru.practicum.explore.event.repository.EventSummary;
 import ru.practicum.explore.user.dto.UserDtoWithNoEmail;
 import ru.practicum.explore.user.model.User;
 
@@ -108,6 +109,26 @@ public final class EventMapperNew {
         return res;
     }
 
+    public static EventShortDto mapToEventShortDto(EventSummary summary) {
+        EventShortDto dto = new EventShortDto();
+        dto.setId(summary.id());
+        dto.setTitle(summary.title());
+        dto.setAnnotation(summary.annotation());
+        dto.setCategory(new CategoryDtoWithId(summary.categoryId(), summary.categoryName()));
+        dto.setPaid(summary.paid());
+        dto.setEventDate(summary.eventDate());
+        dto.setInitiator(new UserDtoWithNoEmail(summary.initiatorId(), summary.initiatorName()));
+        dto.setViews(summary.views());
+        dto.setConfirmedRequests(summary.confirmedRequests());
+        return dto;
+    }
+
+    public static List<EventShortDto> mapToEventShortDto(Iterable<EventSummary> summaries) {
+        List<EventShortDto> res = new ArrayList<>();
+        for (EventSummary s : summaries) res.add(mapToEventShortDto(s));
+        return res;
+    }
+
     public static Event toEntity(NewEventDto dto,
                                  User initiator,
                                  Category category,
@@ -79,4 +79,10 @@ public class Event {
     public int hashCode() {
         return getClass().hashCode();
     }
-}
\ No newline at end of file
+
+    /* есть свободные места: лимит 0 — без ограничений; то же условие, что ewm_has_free_slots в SQL */
+    public boolean hasFreeSlots() {
+        return participantLimit != null
+                && (participantLimit == 0 || confirmedRequests != null && confirmedRequests < participantLimit);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.explore.event.model;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сетка 0.1° × 0.1° для поиска событий рядом с точкой.
+ * <p>
+ * Номер ячейки — row * COLUMNS + column — хранится в locations.cell под индексом idx_locations_cell.
+ * Ячейки одной широтной полосы идут подряд, поэтому круг покрывается несколькими диапазонами
+ * номеров, по одному на полосу, и база читает из индекса только их; точное расстояние считается
+ * уже для этих кандидатов. Формула ячейки повторяет заполнение cell в schema.sql.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class GeoGrid {
+
+    public static final int CELLS_PER_DEGREE = 10;
+    public static final int ROWS = 180 * CELLS_PER_DEGREE;
+    public static final int COLUMNS = 360 * CELLS_PER_DEGREE;
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    public record CellRange(long from, long to) {
+    }
+
+    public static Long cellOf(Float lat, Float lon) {
+        if (lat == null || lon == null) {
+            return null;
+        }
+        return row(lat.doubleValue()) * COLUMNS + column(lon.doubleValue());
+    }
+
+    /* диапазоны номеров ячеек, покрывающие круг; соседние целые полосы сливаются в один диапазон */
+    public static List<CellRange> cover(double lat, double lon, double radiusKm) {
+        double radius = radiusKm / EARTH_RADIUS_KM;
+        double minLat = lat - Math.toDegrees(radius);
+        double maxLat = lat + Math.toDegrees(radius);
+        double deltaLon = 180;
+        if (minLat > -90 && maxLat < 90) {
+            deltaLon = Math.toDegrees(Math.asin(Math.sin(radius) / Math.cos(Math.toRadians(lat))));
+        }
+
+        List<CellRange> ranges = new ArrayList<>();
+        for (long row = row(Math.max(minLat, -90)); row <= row(Math.min(maxLat, 90)); row++) {
+            long first = row * COLUMNS;
+            double west = lon - deltaLon;
+            double east = lon + deltaLon;
+            if (deltaLon >= 180) {
+                add(ranges, first, first + COLUMNS - 1);
+            } else if (west < -180) {
+                add(ranges, first, first + column(east));
+                add(ranges, first + column(west + 360), first + COLUMNS - 1);
+            } else if (east > 180) {
+                add(ranges, first, first + column(east - 360));
+                add(ranges, first + column(west), first + COLUMNS - 1);
+            } else {
+                add(ranges, first + column(west), first + column(east));
+            }
+        }
+        return ranges;
+    }
+
+    /* расстояние по большому кругу, как ewm_distance_km в SQL */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.sin(Math.toRadians(lat2 - lat1) / 2);
+        double dLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        double h = dLat * dLat + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * dLon * dLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    private static void add(List<CellRange> ranges, long from, long to) {
+        if (!ranges.isEmpty() && ranges.getLast().to() + 1 == from) {
+            ranges.set(ranges.size() - 1, new CellRange(ranges.getLast().from(), to));
+        } else {
+            ranges.add(new CellRange(from, to));
+        }
+    }
+
+    private static long row(double lat) {
+        return Math.min((long) Math.floor((lat + 90) * CELLS_PER_DEGREE), ROWS - 1);
+    }
+
+    private static long column(double lon) {
+        return Math.min((long) Math.floor((lon + 180) * CELLS_PER_DEGREE), COLUMNS - 1);
+    }
+}
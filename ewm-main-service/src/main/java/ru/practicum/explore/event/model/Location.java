@@ -19,6 +19,16 @@ public class Location {
     @Column(name = "lon", nullable = true)
     private Float lon;
 
+    /* ячейка GeoGrid; пересчитывается при каждом сохранении */
+    @Column(name = "cell")
+    private Long cell;
+
+    @PrePersist
+    @PreUpdate
+    void assignCell() {
+        cell = GeoGrid.cellOf(lat, lon);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,73 @@
+package ru.practicum.explore.event.repository;
+
+import ru.practicum.explore.common.exception.BadRequestException;
+import ru.practicum.explore.event.model.Event;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Позиция в выдаче для keyset-пагинации: ключ сортировки и id последнего события страницы.
+ * Следующая страница — события строго после этой позиции в порядке «ключ по убыванию, id по возрастанию»
+ * (для {@link Key#ID} — просто id по возрастанию), поэтому её цена не зависит от глубины,
+ * а вставки и удаления не сдвигают границы страниц. Клиенту отдаётся непрозрачной строкой.
+ */
+public record EventCursor(Key key, String value, long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public enum Key {
+        EVENT_DATE, VIEWS, ID
+    }
+
+    public static EventCursor after(Key key, Event last) {
+        return after(key, last.getId(), last.getEventDate(), last.getViews());
+    }
+
+    public static EventCursor after(Key key, EventSummary last) {
+        return after(key, last.id(), last.eventDate(), last.views());
+    }
+
+    private static EventCursor after(Key key, long id, LocalDateTime eventDate, Long views) {
+        String value = switch (key) {
+            case EVENT_DATE -> String.valueOf(eventDate);
+            case VIEWS -> String.valueOf(views == null ? 0L : views);
+            case ID -> "";
+        };
+        return new EventCursor(key, value, id);
+    }
+
+    /* BadRequestException (400), если строка повреждена или выдана для другой сортировки */
+    public static EventCursor decode(String token, Key expected) {
+        EventCursor cursor;
+        try {
+            String[] parts = new String(DECODER.decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+            cursor = new EventCursor(Key.valueOf(parts[0]), parts[1], Long.parseLong(parts[2]));
+            switch (cursor.key()) {
+                case EVENT_DATE -> cursor.eventDate();
+                case VIEWS -> cursor.views();
+                case ID -> { }
+            }
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor: " + token, e);
+        }
+        if (cursor.key() != expected) {
+            throw new BadRequestException("Cursor was issued for another sort order: " + token);
+        }
+        return cursor;
+    }
+
+    public String encode() {
+        return ENCODER.encodeToString((key + "|" + value + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime eventDate() {
+        return LocalDateTime.parse(value);
+    }
+
+    public long views() {
+        return Long.parseLong(value);
+    }
+}
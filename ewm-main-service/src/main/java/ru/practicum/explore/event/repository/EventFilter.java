@@ -0,0 +1,23 @@
+package ru.practicum.explore.event.repository;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Условия поиска событий. Пустое или null-поле означает «не фильтровать».
+ * after — позиция keyset-пагинации: только события после неё; near — только события в этом круге.
+ */
+@Builder
+public record EventFilter(String text,
+                          List<Long> users,
+                          List<String> states,
+                          List<Long> categories,
+                          Boolean paid,
+                          boolean onlyAvailable,
+                          LocalDateTime rangeStart,
+                          LocalDateTime rangeEnd,
+                          GeoCircle near,
+                          EventCursor after) {
+}
@@ -0,0 +1,62 @@
+package ru.practicum.explore.event.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Функции поиска событий для Criteria-запросов.
+ * <p>
+ * {@link #CONTAINS} — поиск подстроки без учёта регистра. На PostgreSQL его выражение совпадает
+ * с триграммным GIN-индексом idx_events_search_trgm, так что LIKE '%text%' идёт по индексу.
+ * {@link #MATCH} и {@link #RANK} на PostgreSQL — to_tsvector/plainto_tsquery с конфигурацией russian
+ * по GIN-индексу idx_events_search_text (оба индекса — в schema-postgresql.sql).
+ * На остальных базах (H2 в тестах) MATCH совпадает с CONTAINS, а релевантность тем выше,
+ * чем ближе к началу текста найдено совпадение.
+ * <p>
+ * {@link #HAS_FREE_SLOTS} — есть свободные места: лимит 0 (без ограничений) или подтверждённых меньше лимита.
+ * Выражение записано с литералом, а не параметром, чтобы PostgreSQL сопоставил его с условием
+ * частичного индекса idx_events_available.
+ * <p>
+ * {@link #DISTANCE_KM} — расстояние по большому кругу между (?1, ?2) и (?3, ?4) в километрах (гаверсинус),
+ * одинаковое на всех базах; совпадает с {@link ru.practicum.explore.event.model.GeoGrid#distanceKm}.
+ */
+public class EventSearchFunctions implements FunctionContributor {
+
+    public static final String CONTAINS = "ewm_text_contains";
+    public static final String MATCH = "ewm_text_match";
+    public static final String RANK = "ewm_text_rank";
+    public static final String HAS_FREE_SLOTS = "ewm_has_free_slots";
+    public static final String DISTANCE_KM = "ewm_distance_km";
+
+    static final String DISTANCE_KM_SQL = "(2 * 6371.0 * asin(least(1.0, sqrt("
+            + "power(sin(radians(?3 - ?1) / 2), 2)"
+            + " + cos(radians(?1)) * cos(radians(?3)) * power(sin(radians(?4 - ?2) / 2), 2)))))";
+
+    private static final String PG_DOCUMENT = "to_tsvector('russian', coalesce(?1, '') || ' ' || coalesce(?2, ''))";
+    private static final String PG_QUERY = "plainto_tsquery('russian', ?3)";
+    private static final String PLAIN_DOCUMENT = "lower(coalesce(?1, '') || ' ' || coalesce(?2, ''))";
+    private static final String PLAIN_CONTAINS = "(" + PLAIN_DOCUMENT + " like ('%' || lower(?3) || '%'))";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        SqmFunctionRegistry registry = functionContributions.getFunctionRegistry();
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        registry.registerPattern(CONTAINS, PLAIN_CONTAINS, types.resolve(StandardBasicTypes.BOOLEAN));
+        registry.registerPattern(HAS_FREE_SLOTS, "(?1 = 0 or ?2 < ?1)", types.resolve(StandardBasicTypes.BOOLEAN));
+        registry.registerPattern(DISTANCE_KM, DISTANCE_KM_SQL, types.resolve(StandardBasicTypes.DOUBLE));
+        if (functionContributions.getDialect() instanceof PostgreSQLDialect) {
+            registry.registerPattern(MATCH, "(" + PG_DOCUMENT + " @@ " + PG_QUERY + ")",
+                    types.resolve(StandardBasicTypes.BOOLEAN));
+            registry.registerPattern(RANK, "ts_rank(" + PG_DOCUMENT + ", " + PG_QUERY + ")",
+                    types.resolve(StandardBasicTypes.DOUBLE));
+        } else {
+            registry.registerPattern(MATCH, PLAIN_CONTAINS, types.resolve(StandardBasicTypes.BOOLEAN));
+            registry.registerPattern(RANK, "(1.0 / greatest(locate(lower(?3), " + PLAIN_DOCUMENT + "), 1))",
+                    types.resolve(StandardBasicTypes.DOUBLE));
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package ru.practicum.explore.event.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+import ru.practicum.explore.category.model.Category;
+import ru.practicum.explore.event.model.Event;
+import ru.practicum.explore.event.model.GeoGrid;
+import ru.practicum.explore.event.model.Location;
+import ru.practicum.explore.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Поиск событий по {@link EventFilter} одним Criteria-запросом.
+ * <p>
+ * Условия всегда добавляются в одном и том же порядке, а отсутствующие фильтры просто не
+ * попадают в WHERE. Поэтому каждой комбинации фильтров соответствует ровно одна форма SQL,
+ * и кэши планов Hibernate и prepared statements драйвера остаются тёплыми.
+ * Запрос страницы не сопровождается count-запросом, а категории, инициаторы и локации
+ * подтягиваются в нём же fetch join'ами — страница загружается одним SQL-запросом.
+ * Для краткого представления списка есть проекции {@link EventSummary} без description.
+ * <p>
+ * Текст ищется через {@link EventSearchFunctions}: как подстрока (по триграммному индексу)
+ * или полнотекстово — в зависимости от ewm.search.text-mode; в режиме INDEX сюда доходят только
+ * запросы, которые не может обслужить индекс в памяти, и ищутся подстрокой. Свойство сортировки
+ * {@link #RELEVANCE} упорядочивает по релевантности найденного текста.
+ */
+@Repository
+public class EventSearchRepository {
+
+    public static final String RELEVANCE = "relevance";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TextMode textMode;
+
+    public EventSearchRepository(@Value("${ewm.search.text-mode:SUBSTRING}") TextMode textMode) {
+        this.textMode = textMode;
+    }
+
+    public List<Event> search(EventFilter filter, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Event> query = cb.createQuery(Event.class);
+        Root<Event> event = query.from(Event.class);
+        event.fetch("category", JoinType.LEFT);
+        event.fetch("initiator", JoinType.LEFT);
+        event.fetch("location", JoinType.LEFT);
+
+        query.select(event)
+                .where(predicates(filter, cb, event).toArray(Predicate[]::new))
+                .orderBy(orders(pageable.getSort(), filter, cb, event));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    /* та же страница, что и search, но только колонками краткого представления */
+    public List<EventSummary> searchSummaries(EventFilter filter, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EventSummary> query = cb.createQuery(EventSummary.class);
+        Root<Event> event = summaryOf(query, cb);
+
+        query.where(predicates(filter, cb, event).toArray(Predicate[]::new))
+                .orderBy(orders(pageable.getSort(), filter, cb, event));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    /* краткие представления событий по id, в произвольном порядке */
+    public List<EventSummary> findSummaries(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EventSummary> query = cb.createQuery(EventSummary.class);
+        Root<Event> event = summaryOf(query, cb);
+        query.where(event.get("id").in(ids));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private static Root<Event> summaryOf(CriteriaQuery<EventSummary> query, CriteriaBuilder cb) {
+        Root<Event> event = query.from(Event.class);
+        Join<Event, Category> category = event.join("category", JoinType.LEFT);
+        Join<Event, User> initiator = event.join("initiator", JoinType.LEFT);
+        query.select(cb.construct(EventSummary.class,
+                event.get("id"),
+                event.get("title"),
+                event.get("annotation"),
+                category.get("id"),
+                category.get("name"),
+                event.get("paid"),
+                event.get("eventDate"),
+                initiator.get("id"),
+                initiator.get("name"),
+                event.get("views"),
+                event.get("confirmedRequests")));
+        return event;
+    }
+
+    private List<Predicate> predicates(EventFilter filter, CriteriaBuilder cb, Root<Event> event) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (isPresent(filter.users())) {
+            predicates.add(event.get("initiator").get("id").in(filter.users()));
+        }
+        if (isPresent(filter.states())) {
+            predicates.add(event.get("state").in(filter.states()));
+        }
+        if (isPresent(filter.categories())) {
+            predicates.add(event.get("category").get("id").in(filter.categories()));
+        }
+        if (Boolean.TRUE.equals(filter.paid())) {
+            predicates.add(cb.isTrue(event.<Boolean>get("paid")));
+        }
+        if (filter.onlyAvailable()) {
+            predicates.add(cb.isTrue(cb.function(EventSearchFunctions.HAS_FREE_SLOTS, Boolean.class,
+                    event.get("participantLimit"), event.get("confirmedRequests"))));
+        }
+        if (hasText(filter)) {
+            String function = textMode == TextMode.FULL_TEXT
+                    ? EventSearchFunctions.MATCH
+                    : EventSearchFunctions.CONTAINS;
+            predicates.add(cb.isTrue(cb.function(function, Boolean.class,
+                    event.get("annotation"), event.get("description"), cb.literal(filter.text()))));
+        }
+        if (filter.near() != null) {
+            predicates.add(near(filter.near(), cb, event));
+        }
+        if (filter.rangeStart() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(event.<LocalDateTime>get("eventDate"), filter.rangeStart()));
+        }
+        if (filter.rangeEnd() != null) {
+            predicates.add(cb.lessThanOrEqualTo(event.<LocalDateTime>get("eventDate"), filter.rangeEnd()));
+        }
+        if (filter.after() != null) {
+            predicates.add(after(filter.after(), cb, event));
+        }
+        return predicates;
+    }
+
+    private static Predicate after(EventCursor cursor, CriteriaBuilder cb, Root<Event> event) {
+        Path<Long> id = event.get("id");
+        return switch (cursor.key()) {
+            case EVENT_DATE -> keyset(cb, event.<LocalDateTime>get("eventDate"), cursor.eventDate(), id, cursor.id());
+            case VIEWS -> keyset(cb, event.<Long>get("views"), cursor.views(), id, cursor.id());
+            case ID -> cb.greaterThan(id, cursor.id());
+        };
+    }
+
+    /* кандидаты — ячейки сетки, покрывающие круг (диапазоны по idx_locations_cell), затем точное расстояние */
+    private static Predicate near(GeoCircle near, CriteriaBuilder cb, Root<Event> event) {
+        Path<Location> location = event.get("location");
+        Path<Long> cell = location.get("cell");
+        Predicate[] cells = GeoGrid.cover(near.lat(), near.lon(), near.radiusKm()).stream()
+                .map(range -> cb.between(cell, range.from(), range.to()))
+                .toArray(Predicate[]::new);
+        Expression<Double> distance = cb.function(EventSearchFunctions.DISTANCE_KM, Double.class,
+                location.get("lat"), location.get("lon"), cb.literal(near.lat()), cb.literal(near.lon()));
+        return cb.and(cb.or(cells), cb.le(distance, near.radiusKm()));
+    }
+
+    /* после (value, lastId) в порядке «ключ по убыванию, id по возрастанию» */
+    private static <T extends Comparable<? super T>> Predicate keyset(CriteriaBuilder cb, Path<T> key, T value,
+                                                                      Path<Long> id, long lastId) {
+        return cb.or(
+                cb.lessThan(key, value),
+                cb.and(cb.equal(key, value), cb.greaterThan(id, lastId)));
+    }
+
+    /* релевантность без текста не определена — такое свойство сортировки пропускается */
+    private static List<Order> orders(Sort sort, EventFilter filter, CriteriaBuilder cb, Root<Event> event) {
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            if (!RELEVANCE.equals(order.getProperty())) {
+                orders.addAll(QueryUtils.toOrders(Sort.by(order), event, cb));
+            } else if (hasText(filter)) {
+                Expression<Double> rank = cb.function(EventSearchFunctions.RANK, Double.class,
+                        event.get("annotation"), event.get("description"), cb.literal(filter.text()));
+                orders.add(order.isAscending() ? cb.asc(rank) : cb.desc(rank));
+            }
+        }
+        return orders;
+    }
+
+    private static boolean hasText(EventFilter filter) {
+        return filter.text() != null && !filter.text().isBlank();
+    }
+
+    private static boolean isPresent(List<?> values) {
+        return values != null && !values.isEmpty();
+    }
+
+    public enum TextMode {
+        /* LIKE '%text%' без учёта регистра, прежняя семантика; находит и части слов */
+        SUBSTRING,
+        /* совпадение слов с учётом морфологии; части слов не находит */
+        FULL_TEXT,
+        /* та же подстрока, что SUBSTRING, но из индекса в памяти; near, сортировка по просмотрам
+           и запросы до готовности индекса идут в БД подстрокой */
+        INDEX
+    }
+}
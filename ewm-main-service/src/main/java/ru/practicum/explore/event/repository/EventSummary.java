@@ -0,0 +1,20 @@
+package ru.practicum.explore.event.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка списка событий: только колонки краткого представления, без description, локации
+ * и служебных полей. Выбирается проекцией, без загрузки и отслеживания сущностей {@code Event}.
+ */
+public record EventSummary(Long id,
+                           String title,
+                           String annotation,
+                           Long categoryId,
+                           String categoryName,
+                           Boolean paid,
+                           LocalDateTime eventDate,
+                           Long initiatorId,
+                           String initiatorName,
+                           Long views,
+                           Long confirmedRequests) {
+}
@@ -0,0 +1,9 @@
+package ru.practicum.explore.event.repository;
+
+/**
+ * Круг поиска «рядом со мной»: центр в градусах и радиус в километрах.
+ */
+public record GeoCircle(double lat, double lon, double radiusKm) {
+
+    public static final double DEFAULT_RADIUS_KM = 10;
+}
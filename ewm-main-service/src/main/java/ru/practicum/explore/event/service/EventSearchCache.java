@@ -0,0 +1,218 @@
+package ru.practicum.explore.event.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.explore.event.model.Event;
+import ru.practicum.explore.event.repository.GeoCircle;
+import ru.practicum.explore.global.dto.SortValues;
+import ru.practicum.explore.global.dto.Statuses;
+import ru.practicum.explore.global.dto.ViewValues;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Кэш страниц публичного поиска событий по нормализованным параметрам запроса.
+ * <p>
+ * Хранит только id событий страницы: дорогой поиск не повторяется, а сами строки при каждом попадании
+ * перечитываются по id, поэтому просмотры и число подтверждённых заявок в ответе не отстают от БД.
+ * Размер ограничен max-entries, запись живёт не дольше ttl-ms. Изменение события после коммита
+ * ({@link #invalidate(Event)}) вытесняет страницы, где оно есть, и страницы, в которые оно могло бы
+ * попасть по категории, платности, свободным местам и дате; текст и круг near при этом не проверяются.
+ * Доля попаданий — метрика ewm.search.cache.hit.ratio.
+ */
+@Component
+public class EventSearchCache {
+
+    private final boolean enabled;
+    private final long ttlMs;
+    private final int maxEntries;
+    private final Counter hits;
+    private final Counter misses;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public EventSearchCache(MeterRegistry meterRegistry,
+                            @Value("${ewm.search.cache.enabled:true}") boolean enabled,
+                            @Value("${ewm.search.cache.ttl-ms:30000}") long ttlMs,
+                            @Value("${ewm.search.cache.max-entries:1000}") int maxEntries) {
+        this.enabled = enabled;
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("ewm.search.cache.requests")
+                .tag("result", "hit")
+                .description("Public event search pages served from the cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("ewm.search.cache.requests")
+                .tag("result", "miss")
+                .description("Public event search pages loaded from the database")
+                .register(meterRegistry);
+        Gauge.builder("ewm.search.cache.hit.ratio", this, EventSearchCache::hitRatio)
+                .description("Share of public event search pages served from the cache")
+                .register(meterRegistry);
+        Gauge.builder("ewm.search.cache.size", entries, Map::size)
+                .description("Cached public event search pages")
+                .register(meterRegistry);
+    }
+
+    /* страница из loader или перечитанная через byIds по id из кэша; загруженное при инвалидации не кэшируется */
+    public <T> List<T> get(Key key,
+                           Supplier<List<T>> loader,
+                           Function<T, Long> id,
+                           Function<List<Long>, List<T>> byIds) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Entry cached = entries.get(key);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt() < ttlMs) {
+            hits.increment();
+            return byIds.apply(cached.ids());
+        }
+        misses.increment();
+        long loadedIn = generation.get();
+        List<T> rows = loader.get();
+        if (generation.get() == loadedIn) {
+            evictIfFull();
+            entries.put(key, new Entry(rows.stream().map(id).toList(), System.currentTimeMillis()));
+        }
+        return rows;
+    }
+
+    /* вызывается после сохранения события; страницы вытесняются только после коммита */
+    public void invalidate(Event event) {
+        if (!enabled) {
+            return;
+        }
+        Change change = Change.of(event);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(change);
+            }
+        });
+    }
+
+    private void apply(Change change) {
+        generation.incrementAndGet();
+        entries.entrySet().removeIf(entry -> entry.getValue().ids().contains(change.id())
+                || entry.getKey().mayContain(change));
+    }
+
+    private void evictIfFull() {
+        if (entries.size() < maxEntries) {
+            return;
+        }
+        long expiredBefore = System.currentTimeMillis() - ttlMs;
+        entries.values().removeIf(entry -> entry.loadedAt() < expiredBefore);
+        if (entries.size() >= maxEntries) {
+            entries.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().loadedAt()))
+                    .ifPresent(oldest -> entries.remove(oldest.getKey(), oldest.getValue()));
+        }
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    /**
+     * Параметры публичного поиска без несущественных различий: регистр и пробелы текста,
+     * порядок категорий, from внутри одной страницы. Незаданные границы дат остаются null —
+     * «от текущего момента» устаревает не больше чем на ttl-ms.
+     */
+    public record Key(ViewValues view,
+                      String text,
+                      List<Long> categories,
+                      boolean paid,
+                      boolean onlyAvailable,
+                      GeoCircle near,
+                      LocalDateTime rangeStart,
+                      LocalDateTime rangeEnd,
+                      String sort,
+                      int offset,
+                      int size,
+                      String cursor) {
+
+        public static Key of(ViewValues view,
+                             String text,
+                             Collection<Long> categories,
+                             Boolean paid,
+                             Boolean onlyAvailable,
+                             GeoCircle near,
+                             LocalDateTime rangeStart,
+                             LocalDateTime rangeEnd,
+                             String sort,
+                             Integer from,
+                             Integer size,
+                             String cursor) {
+            int pageSize = (size == null || size <= 0) ? 10 : size;
+            int pageFrom = from == null ? 0 : from;
+            return new Key(view,
+                    text == null ? "" : text.trim().toLowerCase(Locale.ROOT),
+                    categories == null ? List.of() : categories.stream().distinct().sorted().toList(),
+                    Boolean.TRUE.equals(paid),
+                    Boolean.TRUE.equals(onlyAvailable),
+                    near,
+                    rangeStart,
+                    rangeEnd,
+                    sort == null ? SortValues.EVENT_DATE.name() : sort,
+                    cursor == null ? pageFrom / pageSize * pageSize : 0,
+                    pageSize,
+                    cursor);
+        }
+
+        boolean mayContain(Change change) {
+            if (!change.published() || change.eventDate() == null) {
+                return false;
+            }
+            if (!categories.isEmpty() && !categories.contains(change.categoryId())) {
+                return false;
+            }
+            if (paid && !change.paid() || onlyAvailable && !change.available()) {
+                return false;
+            }
+            return (rangeStart == null || !change.eventDate().isBefore(rangeStart))
+                    && (rangeEnd == null || !change.eventDate().isAfter(rangeEnd));
+        }
+    }
+
+    private record Entry(List<Long> ids, long loadedAt) {
+    }
+
+    /* снимок события на момент сохранения: после коммита сущность уже может измениться */
+    private record Change(long id,
+                          boolean published,
+                          Long categoryId,
+                          boolean paid,
+                          boolean available,
+                          LocalDateTime eventDate) {
+
+        static Change of(Event event) {
+            return new Change(event.getId(),
+                    Statuses.PUBLISHED.name().equals(event.getState()),
+                    event.getCategory() == null ? null : event.getCategory().getId(),
+                    Boolean.TRUE.equals(event.getPaid()),
+                    event.hasFreeSlots(),
+                    event.getEventDate());
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package ru.practicum.explore.event.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.explore.event.model.Event;
+import ru.practicum.explore.event.repository.EventCursor;
+import ru.practicum.explore.event.repository.EventFilter;
+import ru.practicum.explore.event.repository.EventRepository;
+import ru.practicum.explore.event.repository.EventSearchRepository;
+import ru.practicum.explore.global.dto.Statuses;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Инвертированный индекс опубликованных событий в памяти: триграммы annotation и description,
+ * а также категория, платность, наличие свободных мест и дата — для фильтров.
+ * <p>
+ * Текст ищется так же, как в БД (EventSearchFunctions.CONTAINS): подстрокой без учёта регистра
+ * в annotation || ' ' || description. Триграммы запроса сужают кандидатов, совпадение проверяется
+ * по самому тексту; запрос короче трёх символов проверяется по всем документам. Результат —
+ * страница id, упорядоченная по дате или по релевантности: чем ближе к началу текста совпадение,
+ * тем выше, как у RANK на H2. Текст с символами шаблона LIKE индекс не ищет ({@link #supports(String)}),
+ * такие запросы идут в БД.
+ * <p>
+ * Индекс включается режимом ewm.search.text-mode=INDEX, в остальных режимах он не строится.
+ * Индекс строится из БД при старте и раз в rebuild-interval-ms, а между перестроениями
+ * обновляется после коммита каждого
+ * изменения события через {@link #update(Event)}. Изменения, пришедшие во время перестроения,
+ * запоминаются и накладываются на новый индекс перед заменой: строка, прочитанная из БД до
+ * коммита, не затирает более свежий документ. Пока первое построение не закончено,
+ * {@link #isReady()} возвращает false и поиск идёт в БД.
+ * Размер — метрики ewm.search.index.documents и ewm.search.index.terms,
+ * возраст последнего перестроения — ewm.search.index.age.
+ */
+@Component
+@Slf4j
+public class EventSearchIndex {
+
+    private static final Pattern LIKE_SPECIALS = Pattern.compile("[%_\\\\]");
+
+    private final EventRepository eventRepository;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final Counter updates;
+
+    private volatile Index index;
+    /* изменения после начала перестроения: id → документ или null, если событие убрано из индекса */
+    private Map<Long, Document> changedDuringBuild;
+    private volatile long rebuiltAt;
+
+    public EventSearchIndex(EventRepository eventRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${ewm.search.text-mode:SUBSTRING}") EventSearchRepository.TextMode textMode,
+                            @Value("${ewm.search.index.chunk-size:500}") int chunkSize) {
+        this.eventRepository = eventRepository;
+        this.enabled = textMode == EventSearchRepository.TextMode.INDEX;
+        this.chunkSize = chunkSize;
+        this.updates = Counter.builder("ewm.search.index.updates")
+                .description("Incremental search index updates applied after commit")
+                .register(meterRegistry);
+        Gauge.builder("ewm.search.index.documents", this, self -> self.size(Index::documentCount))
+                .description("Published events in the search index")
+                .register(meterRegistry);
+        Gauge.builder("ewm.search.index.terms", this, self -> self.size(Index::termCount))
+                .description("Distinct trigrams in the search index")
+                .register(meterRegistry);
+        Gauge.builder("ewm.search.index.age", this, EventSearchIndex::ageSeconds)
+                .description("Seconds since the search index was last rebuilt from the database")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /* подбирает изменения, прошедшие мимо update(): правки в обход сервиса, сбои после коммита */
+    @Scheduled(fixedDelayString = "${ewm.search.index.rebuild-interval-ms:3600000}",
+            initialDelayString = "${ewm.search.index.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        Index fresh = new Index();
+        synchronized (this) {
+            changedDuringBuild = new HashMap<>();
+        }
+        try {
+            long afterId = 0;
+            List<Long> ids;
+            while (!(ids = eventRepository.findIdsByStateAfter(Statuses.PUBLISHED.name(), afterId,
+                    PageRequest.of(0, chunkSize))).isEmpty()) {
+                eventRepository.findAllByIdIn(ids).forEach(event -> fresh.put(Document.of(event)));
+                afterId = ids.getLast();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Search index rebuild failed, keeping the previous index: {}", e.getMessage());
+            synchronized (this) {
+                changedDuringBuild = null;
+            }
+            return;
+        }
+        synchronized (this) {
+            changedDuringBuild.forEach((eventId, document) -> fresh.apply(eventId, document));
+            index = fresh;
+            changedDuringBuild = null;
+            rebuiltAt = System.currentTimeMillis();
+        }
+        log.info("Search index rebuilt: {} event(s), {} term(s) in {} ms",
+                fresh.documentCount(), fresh.termCount(), rebuiltAt - started);
+    }
+
+    /* вызывается после сохранения события; в индекс изменение попадает только после коммита */
+    public void update(Event event) {
+        if (!enabled) {
+            return;
+        }
+        long eventId = event.getId();
+        Document document = Statuses.PUBLISHED.name().equals(event.getState()) ? Document.of(event) : null;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(eventId, document);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(eventId, document);
+            }
+        });
+    }
+
+    /* false — в тексте есть символы шаблона LIKE, и совпадение с поиском в БД не гарантировано */
+    public boolean supports(String text) {
+        return text != null && !LIKE_SPECIALS.matcher(text).find();
+    }
+
+    /* страница id событий, чей текст содержит filter.text() и которые проходят остальные фильтры */
+    public List<Long> search(EventFilter filter, boolean byRelevance, long offset, int limit) {
+        Index current = index;
+        if (current == null || filter.text() == null || filter.text().isBlank()) {
+            return List.of();
+        }
+        String query = filter.text().toLowerCase(Locale.ROOT);
+        Collection<Long> candidates = current.candidates(query);
+
+        Comparator<Document> order = byRelevance
+                ? Comparator.comparingInt((Document doc) -> doc.text().indexOf(query))
+                : Comparator.comparing(Document::eventDate, Comparator.reverseOrder());
+        return candidates.stream()
+                .map(current.documents::get)
+                .filter(doc -> doc != null && doc.text().contains(query) && doc.matches(filter))
+                .filter(doc -> byRelevance || filter.after() == null || doc.isAfter(filter.after()))
+                .sorted(order.thenComparingLong(Document::id))
+                .skip(offset)
+                .limit(limit)
+                .map(Document::id)
+                .toList();
+    }
+
+    private synchronized void apply(long eventId, Document document) {
+        if (index != null) {
+            index.apply(eventId, document);
+        }
+        if (changedDuringBuild != null) {
+            changedDuringBuild.put(eventId, document);
+        }
+        updates.increment();
+    }
+
+    private double size(ToIntFunction<Index> metric) {
+        Index current = index;
+        return current == null ? 0 : metric.applyAsInt(current);
+    }
+
+    private double ageSeconds() {
+        return rebuiltAt == 0 ? 0 : (System.currentTimeMillis() - rebuiltAt) / 1000.0;
+    }
+
+    /* все подстроки из трёх символов */
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private record Document(long id,
+                            Long categoryId,
+                            boolean paid,
+                            boolean available,
+                            LocalDateTime eventDate,
+                            String text) {
+
+        /* текст — то же выражение, что ищет CONTAINS в БД */
+        static Document of(Event event) {
+            String text = Objects.requireNonNullElse(event.getAnnotation(), "")
+                    + " " + Objects.requireNonNullElse(event.getDescription(), "");
+            return new Document(event.getId(),
+                    event.getCategory() == null ? null : event.getCategory().getId(),
+                    Boolean.TRUE.equals(event.getPaid()),
+                    event.hasFreeSlots(),
+                    event.getEventDate(),
+                    text.toLowerCase(Locale.ROOT));
+        }
+
+        boolean matches(EventFilter filter) {
+            if (filter.categories() != null && !filter.categories().isEmpty()
+                    && !filter.categories().contains(categoryId)) {
+                return false;
+            }
+            if (Boolean.TRUE.equals(filter.paid()) && !paid) {
+                return false;
+            }
+            if (filter.onlyAvailable() && !available) {
+                return false;
+            }
+            return eventDate != null
+                    && !eventDate.isBefore(filter.rangeStart())
+                    && !eventDate.isAfter(filter.rangeEnd());
+        }
+
+        /* keyset по дате: (eventDate по убыванию, id по возрастанию) */
+        boolean isAfter(EventCursor cursor) {
+            int byDate = eventDate.compareTo(cursor.eventDate());
+            return byDate < 0 || byDate == 0 && id > cursor.id();
+        }
+    }
+
+    private static final class Index {
+
+        private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+        private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+        synchronized void put(Document document) {
+            remove(document.id());
+            documents.put(document.id(), document);
+            for (String trigram : trigrams(document.text())) {
+                postings.computeIfAbsent(trigram, t -> ConcurrentHashMap.newKeySet()).add(document.id());
+            }
+        }
+
+        void apply(long eventId, Document document) {
+            if (document == null) {
+                remove(eventId);
+            } else {
+                put(document);
+            }
+        }
+
+        synchronized void remove(long eventId) {
+            Document old = documents.remove(eventId);
+            if (old == null) {
+                return;
+            }
+            for (String trigram : trigrams(old.text())) {
+                Set<Long> ids = postings.get(trigram);
+                if (ids != null && ids.remove(eventId) && ids.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+
+        /* документы со всеми триграммами запроса; короткий запрос сужать нечем */
+        Collection<Long> candidates(String query) {
+            if (query.length() < 3) {
+                return documents.keySet();
+            }
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String trigram : trigrams(query)) {
+                Set<Long> ids = postings.get(trigram);
+                if (ids == null) {
+                    return List.of();
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+            List<Set<Long>> others = lists.subList(1, lists.size());
+            return lists.getFirst().stream()
+                    .filter(id -> others.stream().allMatch(ids -> ids.contains(id)))
+                    .toList();
+        }
+
+        int documentCount() {
+            return documents.size();
+        }
+
+        int termCount() {
+            return postings.size();
+        }
+    }
+}
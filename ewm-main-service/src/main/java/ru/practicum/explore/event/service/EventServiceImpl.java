@@ -1,21 +1,23 @@
 package ru.practicum.explore.event.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.explore.category.model.Category;
 import ru.practicum.explore.category.repository.CategoryRepository;
-import ru.practicum.explore.client.StatsClient;
 import ru.practicum.explore.common.exception.BadRequestException;
 import ru.practicum.explore.common.exception.ConflictException;
 import ru.practicum.explore.common.exception.NotFoundException;
-import ru.practicum.explore.dto.StatDto;
 import ru.practicum.explore.event.dto.EventDto;
+import ru.practicum.explore.event.dto.EventPage;
+import ru.practicum.explore.event.dto.EventShortDto;
 import ru.practicum.explore.event.dto.NewEventDto;
 import ru.practicum.explore.event.dto.PatchEventDto;
 import ru.practicum.explore.event.dto.ResponseEventDto;
@@ -23,19 +25,27 @@ import ru.practicum.explore.event.mapper.EventMapperNew;
 import ru.practicum.explore.event.model.Event;
 import ru.practicum.explore.event.model.Location;
 import ru.practicum.explore.event.model.ParticipationRequest;
+import ru.practicum.explore.event.repository.EventCursor;
+import ru.practicum.explore.event.repository.EventFilter;
 import ru.practicum.explore.event.repository.EventRepository;
+import ru.practicum.explore.event.repository.EventSearchRepository;
+import ru.practicum.explore.event.repository.EventSummary;
+import ru.practicum.explore.event.repository.GeoCircle;
 import ru.practicum.explore.event.repository.LocationRepository;
 import ru.practicum.explore.event.repository.ParticipationRequestRepository;
 import ru.practicum.explore.global.dto.SortValues;
 import ru.practicum.explore.global.dto.Statuses;
+import ru.practicum.explore.global.dto.ViewValues;
+import ru.practicum.explore.stats.service.ViewStatsService;
 import ru.practicum.explore.user.model.User;
 import ru.practicum.explore.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -46,11 +56,18 @@ public class EventServiceImpl implements EventService {
 
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
+    private final EventSearchRepository eventSearchRepository;
+    private final EventSearchIndex eventSearchIndex;
+    private final EventSearchCache eventSearchCache;
     private final CategoryRepository categoryRepository;
     private final LocationRepository locationRepository;
     private final ParticipationRequestRepository participationRequestRepository;
-    private final StatsClient statsClient;
-    private static final Map<Long, Set<String>> VIEWS_IP_CACHE = new ConcurrentHashMap<>();
+    private final ViewStatsService viewStatsService;
+    private final UniqueViewerTracker uniqueViewerTracker;
+    private final PendingViewCounter pendingViewCounter;
+    private final EventViewsReconciler eventViewsReconciler;
+    private final SharedViewerStore sharedViewerStore;
+    private final MeterRegistry meterRegistry;
 
     @Override
     public EventDto getEventById(long userId, long eventId) {
@@ -62,30 +79,15 @@ public class EventServiceImpl implements EventService {
                                 "Event id=" + eventId + " not found for user " + userId));
     }
 
+    /* events.views пишет только PendingViewCounter, здесь просмотры лишь читаются */
     @Override
-    @Transactional
     public EventDto getPublishedEventById(long eventId) {
         Event event = eventRepository.findByIdAndState(eventId, Statuses.PUBLISHED.name())
                 .orElseThrow(EntityNotFoundException::new);
 
-        long views = fetchViews("/events/" + eventId, false);
-        event.setViews(views);
-        eventRepository.save(event);
-
-        return EventMapperNew.mapToEventDto(event);
-    }
-
-    @Override
-    public Collection<ResponseEventDto> getAllUserEvents(long userId,
-                                                         Integer from,
-                                                         Integer size) {
-        PageRequest pageRequest = createPageRequest(from, size);
-        Page<Event> eventsPage = eventRepository.findByInitiatorId(userId, pageRequest);
-
-        return eventsPage.getContent()
-                .stream()
-                .map(EventMapperNew::mapToResponseEventDto)
-                .collect(Collectors.toList());
+        EventDto dto = EventMapperNew.mapToEventDto(event);
+        dto.setViews(pendingViewCounter.withPending(eventId, event.getViews()));
+        return dto;
     }
 
     @Override
@@ -172,8 +174,10 @@ public class EventServiceImpl implements EventService {
 
         applyStateAction(patch.getStateAction(), stored.getState(), updated);
 
-        return EventMapperNew
-                .mapToResponseEventDto(eventRepository.saveAndFlush(updated));
+        Event saved = eventRepository.saveAndFlush(updated);
+        eventSearchIndex.update(saved);
+        eventSearchCache.invalidate(saved);
+        return EventMapperNew.mapToResponseEventDto(saved);
     }
 
     @Override
@@ -212,189 +216,213 @@ public class EventServiceImpl implements EventService {
         return EventMapperNew.mapToEventDto(eventRepository.saveAndFlush(event));
     }
 
-    @Override
-    public Collection<ResponseEventDto> findEventsByUser(String text,
-                                                         List<Long> categories,
-                                                         Boolean paid,
-                                                         LocalDateTime rangeStart,
-                                                         LocalDateTime rangeEnd,
-                                                         Boolean onlyAvailable,
-                                                         String sort,
-                                                         Integer from,
-                                                         Integer size) {
+    /* страница публичного поиска в представлении view; из кэша берутся только id, строки — свежие */
+    private <T, D> EventPage<D> searchPublic(PublicView<T, D> view,
+                                             String text,
+                                             List<Long> categories,
+                                             Boolean paid,
+                                             LocalDateTime rangeStart,
+                                             LocalDateTime rangeEnd,
+                                             Boolean onlyAvailable,
+                                             GeoCircle near,
+                                             String sort,
+                                             Integer from,
+                                             Integer size,
+                                             String cursor) {
+        PublicQuery query = publicQuery(text, categories, paid, rangeStart, rangeEnd, onlyAvailable, near,
+                sort, from, size, cursor);
+        EventSearchCache.Key key = EventSearchCache.Key.of(view.value(), text, categories, paid, onlyAvailable,
+                near, rangeStart, rangeEnd, sort, from, size, cursor);
+        List<T> rows = eventSearchCache.get(key, () -> view.load().apply(query), view.id(), view.byIds());
+        return new EventPage<>(view.present().apply(rows), query.nextCursor(rows, view.after()));
+    }
+
+    private PublicView<Event, ResponseEventDto> fullView() {
+        return new PublicView<>(ViewValues.FULL, this::findPublished, Event::getId,
+                ids -> inOrder(ids, eventRepository.findAllByIdIn(ids), Event::getId), EventCursor::after, events -> {
+                    List<ResponseEventDto> result = new ArrayList<>(EventMapperNew.mapToResponseEventDto(events));
+                    withViews(result, ResponseEventDto::getId, ResponseEventDto::getViews,
+                            ResponseEventDto::setViews);
+                    return result;
+                });
+    }
+
+    /* view=summary: только колонки карточки списка, без description и сущностей в контексте */
+    private PublicView<EventSummary, EventShortDto> summaryView() {
+        return new PublicView<>(ViewValues.SUMMARY, this::findPublishedSummaries, EventSummary::id,
+                ids -> inOrder(ids, eventSearchRepository.findSummaries(ids), EventSummary::id), EventCursor::after,
+                summaries -> {
+                    List<EventShortDto> result = EventMapperNew.mapToEventShortDto(summaries);
+                    withViews(result, EventShortDto::getId, EventShortDto::getViews, EventShortDto::setViews);
+                    return result;
+                });
+    }
+
+    /* view без учёта регистра и пробелов; неизвестное значение — ошибка запроса */
+    private static ViewValues viewOf(String view) {
+        if (view == null || view.isBlank()) {
+            return ViewValues.FULL;
+        }
+        try {
+            return ViewValues.valueOf(view.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown view: " + view);
+        }
+    }
+
+    private PublicQuery publicQuery(String text,
+                                    List<Long> categories,
+                                    Boolean paid,
+                                    LocalDateTime rangeStart,
+                                    LocalDateTime rangeEnd,
+                                    Boolean onlyAvailable,
+                                    GeoCircle near,
+                                    String sort,
+                                    Integer from,
+                                    Integer size,
+                                    String cursor) {
 
         String qText = text == null ? "" : text.trim();
-        boolean byText = !qText.isBlank();
-        boolean byCats = categories != null && !categories.isEmpty();
-        List<Long> cats = byCats ? categories : List.of();
         boolean isPaid = Boolean.TRUE.equals(paid);
         boolean onlyAvail = Boolean.TRUE.equals(onlyAvailable);
 
         int pageFrom = from == null ? 0 : from;
         int pageSize = (size == null || size <= 0) ? 10 : size;
-        PageRequest page = PageRequest.of(pageFrom / pageSize, pageSize);
+        EventCursor.Key cursorKey = publicCursorKey(sort, qText);
+        EventCursor after = null;
+        if (cursor != null) {
+            if (cursorKey == null) {
+                throw new BadRequestException("Cursor paging is not supported for sort=" + sort);
+            }
+            after = EventCursor.decode(cursor, cursorKey);
+        }
+        PageRequest page = PageRequest.of(after == null ? pageFrom / pageSize : 0, pageSize,
+                publicSearchOrder(sort, qText));
 
         LocalDateTime start = rangeStart != null ? rangeStart : LocalDateTime.now();
         LocalDateTime end = rangeEnd != null ? rangeEnd : start.plusYears(100);
 
-        List<ResponseEventDto> result = new ArrayList<>();
-
-        if (byText) {
-            if (!cats.isEmpty()) {
-                if (onlyAvail) {
-                    if (isPaid) {
-                        result.addAll(EventMapperNew.mapToResponseEventDto(
-                                eventRepository
-                                        .findPaidWithLimitStateTextAndCategory(
-                                                true, start, end,
-                                                Statuses.PUBLISHED.name(),
-                                                qText, qText, cats, page)));
-                    } else {
-                        result.addAll(EventMapperNew.mapToResponseEventDto(
-                                eventRepository
-                                        .findLimitStateTextAndCategory(
-                                                start, end,
-                                                Statuses.PUBLISHED.name(),
-                                                qText, qText, cats, page)));
-                    }
-                } else {
-                    if (isPaid) {
-                        result.addAll(EventMapperNew.mapToResponseEventDto(
-                                eventRepository
-                                        .findPaidStateTextAndCategory(
-                                                true, start, end,
-                                                Statuses.PUBLISHED.name(),
-                                                qText, qText, cats, page)));
-                    } else {
-                        result.addAll(EventMapperNew.mapToResponseEventDto(
-                                eventRepository
-                                        .findStateTextAndCategory(
-                                                start, end,
-                                                Statuses.PUBLISHED.name(),
-                                                qText, qText, cats, page)));
-                    }
-                }
+        EventFilter filter = EventFilter.builder()
+                .text(qText)
+                .states(List.of(Statuses.PUBLISHED.name()))
+                .categories(categories)
+                .paid(isPaid)
+                .onlyAvailable(onlyAvail)
+                .near(near)
+                .rangeStart(start)
+                .rangeEnd(end)
+                .after(after)
+                .build();
+        return new PublicQuery(filter, page, sort, cursorKey);
+    }
 
-            } else {
-                if (onlyAvail) {
-                    if (isPaid) {
-                        result.addAll(EventMapperNew.mapToResponseEventDto(
-                                eventRepository
-                                        .findPaidWithLimitStateText(
-                                                true, start, end,
-                                                Statuses.PUBLISHED.name(),
-                                                qText, qText, page)));
-                    } else {
-                        result.addAll(EventMapperNew.mapToResponseEventDto(
-                                eventRepository
-                                        .findLimitStateText(
-                                                start, end,
-                                                Statuses.PUBLISHED.name(),
-                                                qText, qText, page)));
-                    }
-                } else {
-                    if (isPaid) {
-                        result.addAll(EventMapperNew.mapToResponseEventDto(
-                                eventRepository
-                                        .findPaidStateText(
-                                                true, start, end,
-                                                Statuses.PUBLISHED.name(),
-                                                qText, qText, page)));
-                    } else {
-                        result.addAll(EventMapperNew.mapToResponseEventDto(
-                                eventRepository
-                                        .findStateText(
-                                                start, end,
-                                                Statuses.PUBLISHED.name(),
-                                                qText, qText, page)));
-                    }
-                }
+    /* просмотры — с учётом ещё не сброшенных в БД либо из сервиса статистики */
+    private <T> void withViews(List<T> dtos,
+                               Function<T, Long> id,
+                               Function<T, Long> views,
+                               BiConsumer<T, Long> setViews) {
+        if (eventViewsReconciler.isEnabled()) {
+            for (T dto : dtos) {
+                setViews.accept(dto, pendingViewCounter.withPending(id.apply(dto), views.apply(dto)));
             }
-
         } else {
+            Map<String, Long> stats = fetchViews("findEvents",
+                    dtos.stream().map(dto -> "/events/" + id.apply(dto)).toList());
+            for (T dto : dtos) {
+                setViews.accept(dto, stats.getOrDefault("/events/" + id.apply(dto), 0L));
+            }
+        }
+    }
 
-            if (!cats.isEmpty()) {
-                if (onlyAvail) {
-                    if (isPaid) {
-                        result.addAll(EventMapperNew.mapToResponseEventDto(
-                                eventRepository
-                                        .findPaidWithLimitStateCategory(
-                                                true, start, end,
-                                                Statuses.PUBLISHED.name(),
-                                                cats, page)));
-                    } else {
-                        result.addAll(EventMapperNew.mapToResponseEventDto(
-                                eventRepository
-                                        .findLimitStateCategory(
-                                                start, end,
-                                                Statuses.PUBLISHED.name(),
-                                                cats, page)));
-                    }
-                } else {
-                    if (isPaid) {
-                        result.addAll(EventMapperNew.mapToResponseEventDto(
-                                eventRepository
-                                        .findPaidStateCategory(
-                                                true, start, end,
-                                                Statuses.PUBLISHED.name(),
-                                                cats, page)));
-                    } else {
-                        result.addAll(EventMapperNew.mapToResponseEventDto(
-                                eventRepository
-                                        .findStateCategory(
-                                                start, end,
-                                                Statuses.PUBLISHED.name(),
-                                                cats, page)));
-                    }
-                }
+    /* текст ищется в индексе в памяти, страница догружается одним запросом по id; остальное — в БД */
+    private List<Event> findPublished(PublicQuery query) {
+        if (!useSearchIndex(query)) {
+            return eventSearchRepository.search(query.filter(), query.page());
+        }
+        List<Long> ids = searchIndex(query);
+        return inOrder(ids, eventRepository.findAllByIdIn(ids), Event::getId);
+    }
 
-            } else {
-                if (onlyAvail) {
-                    if (isPaid) {
-                        result.addAll(EventMapperNew.mapToResponseEventDto(
-                                eventRepository
-                                        .findPaidWithLimitState(
-                                                true, start, end,
-                                                Statuses.PUBLISHED.name(),
-                                                page)));
-                    } else {
-                        result.addAll(EventMapperNew.mapToResponseEventDto(
-                                eventRepository
-                                        .findLimitState(
-                                                start, end,
-                                                Statuses.PUBLISHED.name(),
-                                                page)));
-                    }
-                } else {
-                    if (isPaid) {
-                        result.addAll(EventMapperNew.mapToResponseEventDto(
-                                eventRepository
-                                        .findPaidState(
-                                                true, start, end,
-                                                Statuses.PUBLISHED.name(),
-                                                page)));
-                    } else {
-                        result.addAll(EventMapperNew.mapToResponseEventDto(
-                                eventRepository
-                                        .findState(
-                                                start, end,
-                                                Statuses.PUBLISHED.name(),
-                                                page)));
-                    }
-                }
-            }
+    private List<EventSummary> findPublishedSummaries(PublicQuery query) {
+        if (!useSearchIndex(query)) {
+            return eventSearchRepository.searchSummaries(query.filter(), query.page());
         }
+        List<Long> ids = searchIndex(query);
+        return inOrder(ids, eventSearchRepository.findSummaries(ids), EventSummary::id);
+    }
 
-        for (ResponseEventDto dto : result) {
-            dto.setViews(fetchViews("/events/" + dto.getId(), false));
+    /* индекс готов только в режиме ewm.search.text-mode=INDEX; near и сортировку по просмотрам он не умеет */
+    private boolean useSearchIndex(PublicQuery query) {
+        return !query.filter().text().isEmpty()
+                && eventSearchIndex.supports(query.filter().text())
+                && query.filter().near() == null
+                && !SortValues.VIEWS.name().equals(query.sort())
+                && eventSearchIndex.isReady();
+    }
+
+    private List<Long> searchIndex(PublicQuery query) {
+        return eventSearchIndex.search(query.filter(), SortValues.RELEVANCE.name().equals(query.sort()),
+                query.page().getOffset(), query.page().getPageSize());
+    }
+
+    /* строки из БД в порядке id, выданном индексом */
+    private static <T> List<T> inOrder(List<Long> ids, List<T> rows, Function<T, Long> id) {
+        Map<Long, T> byId = rows.stream().collect(Collectors.toMap(id, row -> row));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /* ключ курсора соответствует publicSearchOrder; по релевантности курсоров нет */
+    private static EventCursor.Key publicCursorKey(String sort, String text) {
+        if (SortValues.RELEVANCE.name().equals(sort) && !text.isEmpty()) {
+            return null;
+        }
+        return SortValues.VIEWS.name().equals(sort) ? EventCursor.Key.VIEWS : EventCursor.Key.EVENT_DATE;
+    }
+
+    /* курсор выдаётся только за полной страницей: неполная — последняя */
+    private static String nextCursor(List<Event> events, int size, EventCursor.Key key) {
+        return nextCursor(events, size, key, EventCursor::after);
+    }
+
+    private static <T> String nextCursor(List<T> rows,
+                                         int size,
+                                         EventCursor.Key key,
+                                         BiFunction<EventCursor.Key, T, EventCursor> after) {
+        if (rows.isEmpty() || rows.size() < size) {
+            return null;
+        }
+        return after.apply(key, rows.getLast()).encode();
+    }
+
+    /* чем различаются представления выдачи: какие строки грузятся и как из них строится ответ */
+    private record PublicView<T, D>(ViewValues value,
+                                    Function<PublicQuery, List<T>> load,
+                                    Function<T, Long> id,
+                                    Function<List<Long>, List<T>> byIds,
+                                    BiFunction<EventCursor.Key, T, EventCursor> after,
+                                    Function<List<T>, List<D>> present) {
+    }
+
+    /* разобранные параметры публичного поиска; cursorKey == null — сортировка без курсоров */
+    private record PublicQuery(EventFilter filter, PageRequest page, String sort, EventCursor.Key cursorKey) {
+
+        <T> String nextCursor(List<T> rows, BiFunction<EventCursor.Key, T, EventCursor> after) {
+            return cursorKey == null ? null : EventServiceImpl.nextCursor(rows, page.getPageSize(), cursorKey, after);
         }
+    }
 
+    /* порядок задаётся в самом запросе страницы; id — для стабильных границ между страницами */
+    private static Sort publicSearchOrder(String sort, String text) {
+        if (SortValues.RELEVANCE.name().equals(sort) && !text.isEmpty()) {
+            return Sort.by(Sort.Order.desc(EventSearchRepository.RELEVANCE), Sort.Order.asc("id"));
+        }
         if (SortValues.VIEWS.name().equals(sort)) {
-            result.sort(Comparator.comparing(ResponseEventDto::getViews).reversed());
-        } else {
-            result.sort(Comparator.comparing(ResponseEventDto::getEventDate).reversed());
+            return Sort.by(Sort.Order.desc("views"), Sort.Order.asc("id"));
         }
-        return result;
+        return Sort.by(Sort.Order.desc("eventDate"), Sort.Order.asc("id"));
     }
 
     @Override
@@ -442,6 +470,8 @@ public class EventServiceImpl implements EventService {
         applyStateAction(patch.getStateAction(), stored.getState(), stored);
 
         Event updatedEvent = eventRepository.save(stored);
+        eventSearchIndex.update(updatedEvent);
+        eventSearchCache.invalidate(updatedEvent);
         return EventMapperNew.mapToResponseEventDto(updatedEvent);
     }
 
@@ -456,7 +486,10 @@ public class EventServiceImpl implements EventService {
         }
 
         event.setState(Statuses.CANCELED.name());
-        return EventMapperNew.mapToResponseEventDto(eventRepository.saveAndFlush(event));
+        Event saved = eventRepository.saveAndFlush(event);
+        eventSearchIndex.update(saved);
+        eventSearchCache.invalidate(saved);
+        return EventMapperNew.mapToResponseEventDto(saved);
     }
 
     @Override
@@ -467,15 +500,23 @@ public class EventServiceImpl implements EventService {
                                                           LocalDateTime rangeEnd,
                                                           Integer from,
                                                           Integer size) {
+        return searchAdmin(users, states, categories, rangeStart, rangeEnd, from, size, null).events();
+    }
 
-        List<Long> ids = users == null || users.isEmpty() ? List.of(0L) : users;
-        List<String> st = states == null || states.isEmpty() ? List.of("0") : states;
-        List<Long> cats = categories == null || categories.isEmpty() ? List.of(0L) : categories;
+    private EventPage<ResponseEventDto> searchAdmin(List<Long> users,
+                                                    List<String> states,
+                                                    List<Long> categories,
+                                                    LocalDateTime rangeStart,
+                                                    LocalDateTime rangeEnd,
+                                                    Integer from,
+                                                    Integer size,
+                                                    String cursor) {
 
         int pageFrom = from == null ? 0 : from;
         int pageSize = (size == null || size <= 0) ? 10 : size;
+        EventCursor after = cursor == null ? null : EventCursor.decode(cursor, EventCursor.Key.ID);
         PageRequest page = PageRequest
-                .of(pageFrom > 0 ? pageFrom / pageSize : 0, pageSize);
+                .of(pageFrom > 0 && after == null ? pageFrom / pageSize : 0, pageSize, Sort.by("id"));
 
         LocalDateTime start = rangeStart != null ? rangeStart : LocalDateTime.now().minusYears(1);
         LocalDateTime end = rangeEnd != null ? rangeEnd : LocalDateTime.now().plusYears(1);
@@ -484,67 +525,29 @@ public class EventServiceImpl implements EventService {
             throw new BadRequestException("Дата начала должна быть раньше даты окончания");
         }
 
-        List<ResponseEventDto> result = new ArrayList<>();
-
-        if (!ids.equals(List.of(0L))) {
-            if (!st.equals(List.of("0"))) {
-                if (!cats.equals(List.of(0L))) {
-                    result.addAll(EventMapperNew
-                            .mapToResponseEventDto(eventRepository
-                                    .findUsersStatesCategories(
-                                            ids, st, cats, start, end, page)));
-                } else {
-                    result.addAll(EventMapperNew
-                            .mapToResponseEventDto(eventRepository
-                                    .findUsersStates(
-                                            ids, st, start, end, page)));
-                }
-            } else {
-                if (!cats.equals(List.of(0L))) {
-                    result.addAll(EventMapperNew
-                            .mapToResponseEventDto(eventRepository
-                                    .findUsersCategories(
-                                            ids, cats, start, end, page)));
-                } else {
-                    result.addAll(EventMapperNew
-                            .mapToResponseEventDto(eventRepository
-                                    .findUsersEvents(
-                                            ids, start, end, page)));
-                }
-            }
-        } else {
-            if (!st.equals(List.of("0"))) {
-                if (!cats.equals(List.of(0L))) {
-                    result.addAll(EventMapperNew
-                            .mapToResponseEventDto(eventRepository
-                                    .findStatesCategories(
-                                            st, cats, start, end, page)));
-                } else {
-                    result.addAll(EventMapperNew
-                            .mapToResponseEventDto(eventRepository
-                                    .findStates(
-                                            st, start, end, page)));
-                }
-            } else {
-                if (!cats.equals(List.of(0L))) {
-                    result.addAll(EventMapperNew
-                            .mapToResponseEventDto(eventRepository
-                                    .findCategories(
-                                            cats, start, end, page)));
-                } else {
-                    result.addAll(EventMapperNew
-                            .mapToResponseEventDto(eventRepository
-                                    .findByDateRange(
-                                            start, end, page)));
-                }
-            }
-        }
-        return result;
+        EventFilter filter = EventFilter.builder()
+                .users(users)
+                .states(states)
+                .categories(categories)
+                .rangeStart(start)
+                .rangeEnd(end)
+                .after(after)
+                .build();
+        List<Event> events = eventSearchRepository.search(filter, page);
+        return new EventPage<>(EventMapperNew.mapToResponseEventDto(events),
+                nextCursor(events, pageSize, EventCursor.Key.ID));
     }
 
     @Override
-    public Collection<ResponseEventDto> getUserEvents(long userId, int from, int size) {
-        return getAllUserEvents(userId, from, size);
+    public EventPage<ResponseEventDto> getUserEvents(long userId, int from, int size, String cursor) {
+        EventFilter filter = EventFilter.builder()
+                .users(List.of(userId))
+                .after(cursor == null ? null : EventCursor.decode(cursor, EventCursor.Key.ID))
+                .build();
+        PageRequest page = PageRequest.of(cursor == null ? from / size : 0, size, Sort.by("id"));
+        List<Event> events = eventSearchRepository.search(filter, page);
+        return new EventPage<>(EventMapperNew.mapToResponseEventDto(events),
+                nextCursor(events, size, EventCursor.Key.ID));
     }
 
     @Override
@@ -553,30 +556,45 @@ public class EventServiceImpl implements EventService {
                 .findByIdAndInitiatorId(eventId, userId)
                 .orElseThrow(() ->
                         new NotFoundException("Event id=" + eventId + " not found for user " + userId));
-        return EventMapperNew.mapToResponseEventDto(event);
+        ResponseEventDto dto = EventMapperNew.mapToResponseEventDto(event);
+        dto.setViews(pendingViewCounter.withPending(eventId, event.getViews()));
+        return dto;
     }
 
     @Override
-    public Collection<ResponseEventDto> findEvents(String text,
-                                                   List<Long> categories,
-                                                   Boolean paid,
-                                                   LocalDateTime rangeStart,
-                                                   LocalDateTime rangeEnd,
-                                                   Boolean onlyAvailable,
-                                                   String sort,
-                                                   Integer from,
-                                                   Integer size,
-                                                   HttpServletRequest request) {
+    public EventPage<?> findEvents(String text,
+                                   List<Long> categories,
+                                   Boolean paid,
+                                   LocalDateTime rangeStart,
+                                   LocalDateTime rangeEnd,
+                                   Boolean onlyAvailable,
+                                   String sort,
+                                   Integer from,
+                                   Integer size,
+                                   Double lat,
+                                   Double lon,
+                                   Double radius,
+                                   String cursor,
+                                   String view,
+                                   HttpServletRequest request) {
 
         if (rangeStart != null && rangeEnd != null && rangeEnd.isBefore(rangeStart)) {
             throw new BadRequestException("rangeEnd must be after rangeStart");
         }
-        return findEventsByUser(text, categories, paid, rangeStart, rangeEnd,
-                onlyAvailable, sort, from, size);
+        if ((lat == null) != (lon == null)) {
+            throw new BadRequestException("lat and lon must be set together");
+        }
+        GeoCircle near = lat == null ? null
+                : new GeoCircle(lat, lon, radius == null ? GeoCircle.DEFAULT_RADIUS_KM : radius);
+        if (viewOf(view) == ViewValues.SUMMARY) {
+            return searchPublic(summaryView(), text, categories, paid, rangeStart, rangeEnd,
+                    onlyAvailable, near, sort, from, size, cursor);
+        }
+        return searchPublic(fullView(), text, categories, paid, rangeStart, rangeEnd,
+                onlyAvailable, near, sort, from, size, cursor);
     }
 
     @Override
-    @Transactional
     public ResponseEventDto getPublicEvent(long eventId, HttpServletRequest request) {
 
         Event event = eventRepository
@@ -586,25 +604,26 @@ public class EventServiceImpl implements EventService {
         String ip = Optional.ofNullable(request.getHeader("X-Forwarded-For"))
                 .orElse(request.getRemoteAddr());
 
-        VIEWS_IP_CACHE.computeIfAbsent(eventId, k -> ConcurrentHashMap.newKeySet());
-
-        if (VIEWS_IP_CACHE.get(eventId).add(ip)) {
-            event.setViews(event.getViews() + 1);
-            eventRepository.saveAndFlush(event);
+        pendingViewCounter.markViewed(eventId);
+        if (uniqueViewerTracker.markViewed(eventId, ip)) {
+            sharedViewerStore.record(eventId, ip);
         }
 
-        return EventMapperNew.mapToResponseEventDto(event);
+        ResponseEventDto dto = EventMapperNew.mapToResponseEventDto(event);
+        dto.setViews(pendingViewCounter.withPending(eventId, event.getViews()));
+        return dto;
     }
 
     @Override
-    public Collection<ResponseEventDto> findAdminEvents(List<Long> users,
-                                                        List<String> states,
-                                                        List<Long> categories,
-                                                        LocalDateTime rangeStart,
-                                                        LocalDateTime rangeEnd,
-                                                        Integer from,
-                                                        Integer size) {
-        return findEventsByAdmin(users, states, categories, rangeStart, rangeEnd, from, size);
+    public EventPage<ResponseEventDto> findAdminEvents(List<Long> users,
+                                                       List<String> states,
+                                                       List<Long> categories,
+                                                       LocalDateTime rangeStart,
+                                                       LocalDateTime rangeEnd,
+                                                       Integer from,
+                                                       Integer size,
+                                                       String cursor) {
+        return searchAdmin(users, states, categories, rangeStart, rangeEnd, from, size, cursor);
     }
 
     @Override
@@ -675,19 +694,16 @@ public class EventServiceImpl implements EventService {
         }
     }
 
-    private PageRequest createPageRequest(Integer from, Integer size) {
-        int pageNumber = from == null ? 0 : Math.max(from, 0);
-        int pageSize = size == null ? 10 : Math.max(size, 0);
-        return PageRequest.of(pageNumber, pageSize);
+    /* уникальные просмотры — то же, что хранится в events.views */
+    private Map<String, Long> fetchViews(String caller, List<String> uris) {
+        return viewsTimer(caller).record(() -> viewStatsService.getViews(uris, true));
     }
 
-    private long fetchViews(String uri, boolean unique) {
-        String now = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-        String start = "2000-01-01 00:00:00";
-        return statsClient.getStats(start, now, List.of(uri), unique)
-                .stream()
-                .findFirst()
-                .map(StatDto::getHits)
-                .orElse(0L);
+    private Timer viewsTimer(String caller) {
+        return Timer.builder("ewm.views.fetch")
+                .description("Views lookups through the stats server, by calling service method")
+                .tag("caller", caller)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
     }
 }
@@ -0,0 +1,177 @@
+package ru.practicum.explore.event.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.explore.event.repository.EventRepository;
+import ru.practicum.explore.global.dto.Statuses;
+import ru.practicum.explore.stats.service.ViewStatsService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Сверяет events.views с уникальными просмотрами из сервиса статистики.
+ * <p>
+ * events.views — число уникальных зрителей, и пишет его только {@link PendingViewCounter}:
+ * просмотры приходят от {@link SharedViewerStore}, а сверка лишь добавляет туда поправку.
+ * Поэтому и в списках событий views — уникальные зрители, а не все хиты страницы события.
+ * Значение события — строка в БД плюс ещё не записанная дельта — сравнивается с уникальными
+ * хитами за всю историю. Расхождение исправляется, только если два прохода подряд видят его
+ * с одним знаком, и не больше меньшего из двух: хиты, ещё не дошедшие до сервера статистики,
+ * не откатывают счётчик назад. Uri без хитов в ответе нет, поэтому пустой ответ ничего не меняет.
+ * <p>
+ * Каждый full-every-й проход проверяет все опубликованные события, остальные — только события,
+ * которые открывали на этом узле после прошлого прохода, и те, где расхождение уже замечено:
+ * стоимость такого прохода зависит от свежего трафика, а не от числа событий. Если проход
+ * не удался, отметки о просмотрах возвращаются и проверяются следующим. Время от последнего
+ * удачного прохода — метрика ewm.views.reconcile.lag.
+ */
+@Component
+@Slf4j
+public class EventViewsReconciler {
+
+    private static final LocalDateTime STATS_START = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final EventRepository eventRepository;
+    private final ViewStatsService viewStatsService;
+    private final PendingViewCounter pendingViewCounter;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final int fullEvery;
+
+    private Map<Long, Long> suspects = new HashMap<>();
+    private volatile LocalDateTime watermark;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private long runs;
+
+    public EventViewsReconciler(EventRepository eventRepository,
+                                ViewStatsService viewStatsService,
+                                PendingViewCounter pendingViewCounter,
+                                MeterRegistry meterRegistry,
+                                @Value("${ewm.views.reconcile.enabled:true}") boolean enabled,
+                                @Value("${ewm.views.reconcile.chunk-size:200}") int chunkSize,
+                                @Value("${ewm.views.reconcile.full-every:60}") int fullEvery) {
+        this.eventRepository = eventRepository;
+        this.viewStatsService = viewStatsService;
+        this.pendingViewCounter = pendingViewCounter;
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.fullEvery = Math.max(1, fullEvery);
+        Gauge.builder("ewm.views.reconcile.lag", this, EventViewsReconciler::lagSeconds)
+                .description("Seconds since the last successful views reconciliation")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /* true — events.views сверяется этим заданием, и поиску не нужно ходить в сервис статистики */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.views.reconcile.interval-ms:60000}",
+            initialDelayString = "${ewm.views.reconcile.initial-delay-ms:10000}")
+    public synchronized void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        boolean full = watermark == null || runs % fullEvery == 0;
+        LocalDateTime startedRunAt = LocalDateTime.now();
+        Set<Long> viewed = pendingViewCounter.takeViewed();
+        try {
+            Map<Long, Long> drifts = new HashMap<>();
+            int corrected = full ? reconcilePublished(drifts) : reconcileActive(viewed, drifts);
+            suspects = drifts;
+            watermark = startedRunAt;
+            runs++;
+            log.debug("Reconciled views ({} run): {} corrected, {} drifting",
+                    full ? "full" : "delta", corrected, drifts.size());
+        } catch (RuntimeException e) {
+            viewed.forEach(pendingViewCounter::markViewed);
+            log.warn("Views reconciliation failed, last success at {}: {}", watermark, e.getMessage());
+        }
+    }
+
+    private int reconcilePublished(Map<Long, Long> drifts) {
+        int corrected = 0;
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = eventRepository.findIdsByStateAfter(Statuses.PUBLISHED.name(), afterId,
+                    PageRequest.of(0, chunkSize));
+            if (!ids.isEmpty()) {
+                corrected += reconcileChunk(ids, drifts);
+                afterId = ids.getLast();
+            }
+        } while (ids.size() == chunkSize);
+        return corrected;
+    }
+
+    /* события, открытые после прошлого прохода, и события с уже замеченным расхождением */
+    private int reconcileActive(Set<Long> viewed, Map<Long, Long> drifts) {
+        TreeSet<Long> active = new TreeSet<>(viewed);
+        active.addAll(suspects.keySet());
+        List<Long> ids = List.copyOf(active);
+        int corrected = 0;
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            corrected += reconcileChunk(ids.subList(i, Math.min(ids.size(), i + chunkSize)), drifts);
+        }
+        return corrected;
+    }
+
+    private int reconcileChunk(List<Long> ids, Map<Long, Long> drifts) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Map<String, Long> viewers = viewStatsService.countHits(uris(ids), STATS_START, LocalDateTime.now(), true);
+        Map<Long, Long> stored = new HashMap<>();
+        eventRepository.findViewsByIdIn(ids).forEach(row ->
+                stored.put((Long) row[0], row[1] == null ? 0L : (Long) row[1]));
+
+        int corrected = 0;
+        for (Long id : ids) {
+            Long expected = viewers.get(uri(id));
+            if (expected == null) {
+                continue;
+            }
+            long drift = expected - pendingViewCounter.withPending(id, stored.get(id));
+            if (drift == 0) {
+                continue;
+            }
+            Long previous = suspects.get(id);
+            if (previous == null || Long.signum(previous) != Long.signum(drift)) {
+                drifts.put(id, drift);
+                continue;
+            }
+            long correction = Long.signum(drift) * Math.min(Math.abs(previous), Math.abs(drift));
+            pendingViewCounter.add(id, correction);
+            corrected++;
+            if (correction != drift) {
+                drifts.put(id, drift - correction);
+            }
+        }
+        return corrected;
+    }
+
+    private double lagSeconds() {
+        LocalDateTime reconciledAt = watermark == null ? startedAt : watermark;
+        return Duration.between(reconciledAt, LocalDateTime.now()).toMillis() / 1000.0;
+    }
+
+    private static List<String> uris(List<Long> ids) {
+        return ids.stream().map(EventViewsReconciler::uri).toList();
+    }
+
+    private static String uri(long id) {
+        return "/events/" + id;
+    }
+}
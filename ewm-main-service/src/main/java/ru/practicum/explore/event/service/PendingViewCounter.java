@@ -0,0 +1,141 @@
+package ru.practicum.explore.event.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Отложенная запись просмотров в events.views.
+ * <p>
+ * Просмотры копятся в счётчике на событие и раз в flush-interval-ms уходят одним пакетом
+ * {@code UPDATE events SET views = views + ?}. Горячее событие не блокирует свою строку на
+ * каждом запросе, а чтение добавляет к сохранённому значению ещё не записанную дельту.
+ * <p>
+ * Счётчик события меняется только атомарно через карту, под её блокировкой: сброс, удаление
+ * опустевшего счётчика и инкремент не теряют друг друга. Дельта, которая сейчас записывается,
+ * остаётся видна читателям до конца записи, так что просмотры не пропадают на время сброса.
+ * <p>
+ * Счётчик ещё и помнит события, которые открывали на этом узле, — любые просмотры, не только
+ * уникальные. По ним {@link EventViewsReconciler} выбирает, что сверять между полными проходами.
+ */
+@Component
+@Slf4j
+public class PendingViewCounter {
+
+    private static final String FLUSH_SQL = "UPDATE events SET views = COALESCE(views, 0) + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, Delta> pending = new ConcurrentHashMap<>();
+    private final Set<Long> viewed = ConcurrentHashMap.newKeySet();
+
+    public PendingViewCounter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void increment(long eventId) {
+        pending.merge(eventId, Delta.ONE, Delta::plus);
+    }
+
+    /* поправка от сверки со статистикой, в том числе отрицательная; записывается тем же сбросом */
+    public void add(long eventId, long views) {
+        if (views != 0) {
+            pending.merge(eventId, new Delta(views, 0), Delta::plus);
+        }
+    }
+
+    /* событие открывали на этом узле */
+    public void markViewed(long eventId) {
+        viewed.add(eventId);
+    }
+
+    /* события, открытые с прошлого вызова; отметки, сделанные во время вызова, остаются на следующий */
+    public Set<Long> takeViewed() {
+        Set<Long> taken = new HashSet<>();
+        for (Long eventId : viewed) {
+            if (viewed.remove(eventId)) {
+                taken.add(eventId);
+            }
+        }
+        return taken;
+    }
+
+    /* ещё не записанные просмотры, включая записываемые прямо сейчас */
+    public long pending(long eventId) {
+        Delta delta = pending.get(eventId);
+        return delta == null ? 0 : delta.total();
+    }
+
+    /* сохранённое значение плюс ещё не записанные просмотры */
+    public long withPending(long eventId, Long stored) {
+        return (stored == null ? 0 : stored) + pending(eventId);
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.views.counter.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        Map<Long, Long> taken = new HashMap<>();
+        for (Long eventId : pending.keySet()) {
+            /* накопленное переносится в «записывается» целиком: инкременты после переноса — уже следующая дельта */
+            pending.computeIfPresent(eventId, (id, delta) -> {
+                if (delta.accumulated() == 0) {
+                    return delta.isEmpty() ? null : delta;
+                }
+                taken.put(id, delta.accumulated());
+                return new Delta(0, delta.flushing() + delta.accumulated());
+            });
+        }
+        if (taken.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = taken.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .toList();
+        boolean written = write(batch);
+        taken.forEach((eventId, count) -> pending.computeIfPresent(eventId, (id, delta) -> {
+            Delta rest = new Delta(delta.accumulated() + (written ? 0 : count), delta.flushing() - count);
+            return rest.isEmpty() ? null : rest;
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private boolean write(List<Object[]> batch) {
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            log.debug("Flushed views of {} event(s)", batch.size());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Cannot flush views of {} event(s), will retry: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /* accumulated — ещё не отправленные просмотры, flushing — отправленные, но пока не записанные */
+    private record Delta(long accumulated, long flushing) {
+
+        static final Delta ONE = new Delta(1, 0);
+
+        Delta plus(Delta other) {
+            return new Delta(accumulated + other.accumulated, flushing + other.flushing);
+        }
+
+        long total() {
+            return accumulated + flushing;
+        }
+
+        boolean isEmpty() {
+            return accumulated == 0 && flushing == 0;
+        }
+    }
+}
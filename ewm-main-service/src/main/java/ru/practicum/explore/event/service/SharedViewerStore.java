@@ -0,0 +1,146 @@
+package ru.practicum.explore.event.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.explore.global.tools.BloomFilter;
+
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Общее для всех узлов main-service хранилище уникальных зрителей: таблица event_viewers
+ * с ключом (event_id, ip_hash).
+ * <p>
+ * Новые пары копятся в очереди и раз в flush-interval-ms вставляются одним пакетом
+ * «вставить, если нет». Просмотр засчитывается только за действительно вставленную строку,
+ * поэтому зритель, пришедший на другой узел или после перезапуска, второй раз не считается.
+ * Повторы, уже известные этому узлу, отсекает {@link UniqueViewerTracker} ещё до очереди.
+ * <p>
+ * Строка хранит время первого просмотра и живёт retention-ms: зрителя, вернувшегося позже,
+ * таблица засчитает снова. Такие повторы убирает {@link EventViewsReconciler}, сверяя
+ * events.views с уникальными просмотрами из сервиса статистики.
+ */
+@Component
+@Slf4j
+public class SharedViewerStore {
+
+    private static final String POSTGRES_INSERT_SQL = """
+            INSERT INTO event_viewers (event_id, ip_hash) VALUES (?, ?) ON CONFLICT DO NOTHING
+            """;
+    private static final String STANDARD_INSERT_SQL = """
+            MERGE INTO event_viewers v
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) AS n(event_id, ip_hash)
+               ON v.event_id = n.event_id AND v.ip_hash = n.ip_hash
+             WHEN NOT MATCHED THEN INSERT (event_id, ip_hash) VALUES (n.event_id, n.ip_hash)
+            """;
+    private static final String PURGE_SQL = "DELETE FROM event_viewers WHERE seen_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PendingViewCounter pendingViewCounter;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long retentionMs;
+    private final BlockingQueue<Viewer> queue;
+    private volatile String insertSql;
+
+    public SharedViewerStore(JdbcTemplate jdbcTemplate,
+                             PendingViewCounter pendingViewCounter,
+                             @Value("${ewm.views.viewers.shared.enabled:true}") boolean enabled,
+                             @Value("${ewm.views.viewers.shared.queue-capacity:10000}") int queueCapacity,
+                             @Value("${ewm.views.viewers.shared.batch-size:500}") int batchSize,
+                             @Value("${ewm.views.viewers.shared.retention-ms:2592000000}") long retentionMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pendingViewCounter = pendingViewCounter;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.retentionMs = retentionMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /* вызывается для зрителя, которого этот узел видит впервые; сам просмотр засчитается при сбросе */
+    public void record(long eventId, String ip) {
+        if (!enabled) {
+            pendingViewCounter.increment(eventId);
+            return;
+        }
+        if (!queue.offer(new Viewer(eventId, BloomFilter.hash64(ip)))) {
+            /* очередь переполнена: просмотр засчитывается без проверки, как без общего хранилища */
+            log.debug("Shared viewer queue is full, view of event {} counted locally", eventId);
+            pendingViewCounter.increment(eventId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.views.viewers.shared.flush-interval-ms:500}")
+    public synchronized void flush() {
+        List<Viewer> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            insert(batch);
+            batch.clear();
+        }
+    }
+
+    /* удаляет зрителей старше retention-ms, чтобы таблица не росла вместе со всей историей просмотров */
+    @Scheduled(fixedDelayString = "${ewm.views.viewers.shared.purge-interval-ms:3600000}",
+            initialDelayString = "${ewm.views.viewers.shared.purge-interval-ms:3600000}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(retentionMs));
+        try {
+            int removed = jdbcTemplate.update(PURGE_SQL, before);
+            log.debug("Purged {} viewer(s) first seen before {}", removed, before);
+        } catch (RuntimeException e) {
+            log.warn("Cannot purge viewers first seen before {}: {}", before, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void insert(List<Viewer> batch) {
+        List<Object[]> args = batch.stream()
+                .map(viewer -> new Object[]{viewer.eventId(), viewer.ipHash()})
+                .toList();
+        int[] inserted;
+        try {
+            inserted = jdbcTemplate.batchUpdate(insertSql(), args);
+        } catch (RuntimeException e) {
+            log.warn("Cannot store {} viewer(s), views counted without cross-node check: {}",
+                    batch.size(), e.getMessage());
+            batch.forEach(viewer -> pendingViewCounter.increment(viewer.eventId()));
+            return;
+        }
+        for (int i = 0; i < inserted.length; i++) {
+            /* SUCCESS_NO_INFO драйвер возвращает, когда не знает число строк — считаем вставкой */
+            if (inserted[i] > 0 || inserted[i] == Statement.SUCCESS_NO_INFO) {
+                pendingViewCounter.increment(batch.get(i).eventId());
+            }
+        }
+    }
+
+    private String insertSql() {
+        if (insertSql == null) {
+            String product = JdbcUtils.commonDatabaseName(jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+            insertSql = "PostgreSQL".equals(product) ? POSTGRES_INSERT_SQL : STANDARD_INSERT_SQL;
+        }
+        return insertSql;
+    }
+
+    private record Viewer(long eventId, long ipHash) {
+    }
+}
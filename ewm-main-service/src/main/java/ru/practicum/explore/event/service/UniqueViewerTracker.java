@@ -0,0 +1,178 @@
+package ru.practicum.explore.event.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.explore.global.tools.ScalableBloomFilter;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Запоминает, какие IP уже просматривали событие, в ограниченном объёме памяти.
+ * <p>
+ * Для каждого события — пара фильтров Блума, которые меняются местами раз в ttl-ms, так что IP
+ * забывается через ttl-ms..2 × ttl-ms. Фильтры масштабируемые: начинаются с expected-per-event
+ * и растут вместе с числом зрителей, поэтому популярное событие не насыщает фильтр.
+ * Если суммарный размер фильтров превышает max-bytes, вытесняются события, к которым дольше всего
+ * не обращались. Ложное срабатывание фильтра или вытеснение дают лишь неучтённый или повторно
+ * учтённый просмотр.
+ */
+@Component
+@Slf4j
+public class UniqueViewerTracker {
+
+    private final long ttlMs;
+    private final long expectedPerEvent;
+    private final double falsePositiveRate;
+    private final long maxBytes;
+
+    private final Map<Long, Viewers> viewers = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    public UniqueViewerTracker(MeterRegistry meterRegistry,
+                               @Value("${ewm.views.viewers.ttl-ms:86400000}") long ttlMs,
+                               @Value("${ewm.views.viewers.expected-per-event:1000}") long expectedPerEvent,
+                               @Value("${ewm.views.viewers.false-positive-rate:0.01}") double falsePositiveRate,
+                               @Value("${ewm.views.viewers.max-bytes:67108864}") long maxBytes) {
+        this.ttlMs = ttlMs;
+        this.expectedPerEvent = expectedPerEvent;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBytes = maxBytes;
+        Gauge.builder("ewm.views.viewers.heap.bytes", usedBytes, AtomicLong::get)
+                .description("Approximate heap used by unique viewer filters")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("ewm.views.viewers.events", viewers, Map::size)
+                .description("Events with tracked unique viewers")
+                .register(meterRegistry);
+    }
+
+    /* true, если ip ещё не просматривал событие в пределах окна */
+    public boolean markViewed(long eventId, String ip) {
+        long now = System.currentTimeMillis();
+        while (true) {
+            Viewers entry = viewers.computeIfAbsent(eventId, id -> newViewers(now));
+            Mark mark = entry.markViewed(ip, now);
+            if (mark == Mark.RELEASED) {
+                /* запись вытеснили между поиском и отметкой: отметка в ней потерялась бы */
+                continue;
+            }
+            if (usedBytes.get() > maxBytes) {
+                evict();
+            }
+            return mark == Mark.FIRST;
+        }
+    }
+
+    /* события без просмотров дольше 2 × ttl-ms уже ничего не помнят — их фильтры удаляются целиком */
+    @Scheduled(fixedDelayString = "${ewm.views.viewers.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        long expiredBefore = System.currentTimeMillis() - 2 * ttlMs;
+        viewers.forEach((eventId, entry) -> {
+            if (entry.lastAccess < expiredBefore) {
+                remove(eventId, entry);
+            }
+        });
+    }
+
+    private Viewers newViewers(long now) {
+        Viewers entry = new Viewers(newFilter(), now);
+        usedBytes.addAndGet(entry.sizeInBytes());
+        return entry;
+    }
+
+    /*
+     * Запись сначала закрывается для отметок и только потом удаляется из карты: иначе отметка,
+     * попавшая между удалением и закрытием, ушла бы в уже забытую запись.
+     */
+    private boolean remove(long eventId, Viewers entry) {
+        long freed = entry.release();
+        if (freed < 0) {
+            return false;
+        }
+        viewers.remove(eventId, entry);
+        usedBytes.addAndGet(-freed);
+        return true;
+    }
+
+    private ScalableBloomFilter newFilter() {
+        return new ScalableBloomFilter(expectedPerEvent, falsePositiveRate);
+    }
+
+    /* освобождает место до 90% лимита, начиная с давно не просматривавшихся событий */
+    private synchronized void evict() {
+        long target = maxBytes * 9 / 10;
+        if (usedBytes.get() <= target) {
+            return;
+        }
+        int evicted = 0;
+        for (Map.Entry<Long, Viewers> candidate : viewers.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                .toList()) {
+            if (usedBytes.get() <= target) {
+                break;
+            }
+            if (remove(candidate.getKey(), candidate.getValue())) {
+                evicted++;
+            }
+        }
+        log.debug("Evicted unique viewers of {} event(s), {} bytes in use", evicted, usedBytes.get());
+    }
+
+    private enum Mark {
+        FIRST,
+        REPEATED,
+        RELEASED
+    }
+
+    private final class Viewers {
+
+        private ScalableBloomFilter current;
+        private ScalableBloomFilter previous;
+        private long rotatedAt;
+        private boolean released;
+        private volatile long lastAccess;
+
+        private Viewers(ScalableBloomFilter current, long now) {
+            this.current = current;
+            this.rotatedAt = now;
+            this.lastAccess = now;
+        }
+
+        /* ротация и рост фильтра учитываются в usedBytes под тем же замком, что и release() */
+        private synchronized Mark markViewed(String ip, long now) {
+            if (released) {
+                return Mark.RELEASED;
+            }
+            lastAccess = now;
+            long before = sizeInBytes();
+            if (now - rotatedAt >= ttlMs) {
+                previous = now - rotatedAt >= 2 * ttlMs ? null : current;
+                current = newFilter();
+                rotatedAt = now;
+            }
+            boolean first = (previous == null || !previous.mightContain(ip)) && current.put(ip);
+            usedBytes.addAndGet(sizeInBytes() - before);
+            return first ? Mark.FIRST : Mark.REPEATED;
+        }
+
+        /* закрывает запись для отметок и возвращает её размер; -1, если она уже закрыта */
+        private synchronized long release() {
+            if (released) {
+                return -1;
+            }
+            released = true;
+            return sizeInBytes();
+        }
+
+        private synchronized long sizeInBytes() {
+            return current.sizeInBytes() + (previous == null ? 0 : previous.sizeInBytes());
+        }
+    }
+}
@@ -1,5 +1,5 @@
 package ru.practicum.explore.global.dto;
 
 public enum SortValues {
-    VIEWS, EVENT_DATE
+    VIEWS, EVENT_DATE, RELEVANCE
 }
\ No newline at end of file
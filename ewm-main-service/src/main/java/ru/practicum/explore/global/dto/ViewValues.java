@@ -0,0 +1,5 @@
+package ru.practicum.explore.global.dto;
+
+public enum ViewValues {
+    FULL, SUMMARY
+}
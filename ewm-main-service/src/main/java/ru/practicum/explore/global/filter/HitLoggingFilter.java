@@ -1,16 +1,17 @@
 package ru.practicum.explore.global.filter;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import ru.practicum.explore.client.StatsClient;
 import ru.practicum.explore.dto.EndHitDto;
+import ru.practicum.explore.stats.dispatch.HitDispatcher;
+import ru.practicum.explore.stats.dispatch.HitReducer;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
@@ -18,14 +19,25 @@ import java.time.format.DateTimeFormatter;
 import java.util.Optional;
 
 @Component
-@RequiredArgsConstructor
-@Slf4j
 public class HitLoggingFilter extends OncePerRequestFilter {
 
-    private final StatsClient statsClient;
+    private final HitDispatcher hitDispatcher;
+    private final HitReducer hitReducer;
+    /* только собственная работа фильтра, без обработки самого запроса */
+    private final Timer overhead;
     private static final DateTimeFormatter FMT =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    public HitLoggingFilter(HitDispatcher hitDispatcher, HitReducer hitReducer, MeterRegistry meterRegistry) {
+        this.hitDispatcher = hitDispatcher;
+        this.hitReducer = hitReducer;
+        this.overhead = Timer.builder("ewm.hits.filter.overhead")
+                .description("Time HitLoggingFilter spends building and handing off a hit")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest req,
                                     @NonNull HttpServletResponse res,
@@ -44,17 +56,17 @@ public class HitLoggingFilter extends OncePerRequestFilter {
         chain.doFilter(req, res);
 
         if (logThisRequest) {
-            EndHitDto hit = EndHitDto.builder()
-                    .app("ewm-main-service")
-                    .uri(uri)
-                    .ip(ip)
-                    .timestamp(LocalDateTime.now().format(FMT))
-                    .build();
-            try {
-                statsClient.save(hit);
-            } catch (Exception e) {
-                log.warn("Cannot send hit to stats: {}", e.getMessage());
-            }
+            overhead.record(() -> {
+                EndHitDto hit = EndHitDto.builder()
+                        .app("ewm-main-service")
+                        .uri(uri)
+                        .ip(ip)
+                        .timestamp(LocalDateTime.now().format(FMT))
+                        .build();
+                if (hitReducer.admit(hit)) {
+                    hitDispatcher.dispatch(hit);
+                }
+            });
         }
     }
 }
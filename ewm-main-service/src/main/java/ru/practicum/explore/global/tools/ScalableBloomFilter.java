@@ -0,0 +1,75 @@
+package ru.practicum.explore.global.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Фильтр Блума, который растёт вместе с числом элементов (Almeida et al., «Scalable Bloom Filters»).
+ * <p>
+ * Когда в последнем фильтре набирается столько элементов, на сколько он рассчитан, добавляется
+ * следующий — вдвое больше и с вдвое меньшей долей ложных срабатываний. Итоговая доля остаётся
+ * не выше заданной, сколько бы элементов ни добавили, а память растёт пропорционально их числу.
+ */
+public class ScalableBloomFilter {
+
+    private static final int GROWTH = 2;
+    private static final double TIGHTENING = 0.5;
+
+    private final List<Stage> stages = new ArrayList<>();
+
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+        /* сумма ряда p0 + p0·r + p0·r² + … = p0 / (1 - r) не должна превысить falsePositiveRate */
+        addStage(Math.max(1, initialCapacity), falsePositiveRate * (1 - TIGHTENING));
+    }
+
+    public synchronized boolean mightContain(String value) {
+        for (Stage stage : stages) {
+            if (stage.filter.mightContain(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* true, если значения в фильтре ещё не было */
+    public synchronized boolean put(String value) {
+        if (mightContain(value)) {
+            return false;
+        }
+        Stage last = stages.getLast();
+        if (last.count >= last.capacity) {
+            last = addStage(last.capacity * GROWTH, last.falsePositiveRate * TIGHTENING);
+        }
+        last.filter.put(value);
+        last.count++;
+        return true;
+    }
+
+    public synchronized long sizeInBytes() {
+        return stages.stream().mapToLong(stage -> stage.filter.sizeInBytes()).sum();
+    }
+
+    synchronized int stageCount() {
+        return stages.size();
+    }
+
+    private Stage addStage(long capacity, double falsePositiveRate) {
+        Stage stage = new Stage(new BloomFilter(capacity, falsePositiveRate), capacity, falsePositiveRate);
+        stages.add(stage);
+        return stage;
+    }
+
+    private static final class Stage {
+
+        private final BloomFilter filter;
+        private final long capacity;
+        private final double falsePositiveRate;
+        private long count;
+
+        private Stage(BloomFilter filter, long capacity, double falsePositiveRate) {
+            this.filter = filter;
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package ru.practicum.explore.stats.dispatch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.practicum.explore.client.StatsClient;
+import ru.practicum.explore.dto.EndHitDto;
+import ru.practicum.explore.stats.spool.HitSpool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отправляет хиты в сервис статистики вне потока запроса.
+ * Хиты складываются в ограниченную очередь, которую разбирают воркеры на виртуальных потоках
+ * и отправляют пачками через POST /hits. При переполнении очереди действует {@link OverflowPolicy},
+ * неотправленные пачки уходят в {@link HitSpool}.
+ * <p>
+ * Пачку, отвергнутую с 4xx, воркер досылает по одному хиту и отбрасывает только отвергнутые.
+ * <p>
+ * Журнал пишется только фоновыми потоками: хиты, не поместившиеся в очередь, передаются
+ * отдельному писателю через вторую ограниченную очередь, а если и она полна — отбрасываются.
+ */
+@Component
+@Slf4j
+public class HitDispatcher {
+
+    private static final long POLL_TIMEOUT_MS = 200;
+
+    private final StatsClient statsClient;
+    private final HitSpool hitSpool;
+    private final BlockingQueue<EndHitDto> queue;
+    private final BlockingQueue<EndHitDto> overflow;
+    private final int batchSize;
+    private final int workers;
+    private final OverflowPolicy overflowPolicy;
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Counter sentHits;
+    private final Counter spooledHits;
+    private final Counter droppedHits;
+
+    private volatile boolean running = true;
+
+    public HitDispatcher(StatsClient statsClient,
+                         HitSpool hitSpool,
+                         MeterRegistry meterRegistry,
+                         @Value("${ewm.hits.dispatch.queue-capacity:10000}") int queueCapacity,
+                         @Value("${ewm.hits.dispatch.batch-size:100}") int batchSize,
+                         @Value("${ewm.hits.dispatch.workers:2}") int workers,
+                         @Value("${ewm.hits.dispatch.overflow:SPOOL}") OverflowPolicy overflowPolicy,
+                         @Value("${ewm.hits.dispatch.overflow-capacity:10000}") int overflowCapacity) {
+        this.statsClient = statsClient;
+        this.hitSpool = hitSpool;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.overflow = new ArrayBlockingQueue<>(overflowCapacity);
+        this.batchSize = batchSize;
+        this.workers = workers;
+        this.overflowPolicy = overflowPolicy;
+
+        Gauge.builder("ewm.hits.queued", queue, BlockingQueue::size)
+                .description("Hits waiting to be sent to the stats server")
+                .register(meterRegistry);
+        Gauge.builder("ewm.hits.overflow.queued", overflow, BlockingQueue::size)
+                .description("Hits waiting to be written to the local spool after queue overflow")
+                .register(meterRegistry);
+        this.sentHits = Counter.builder("ewm.hits.sent")
+                .description("Hits accepted by the stats server")
+                .register(meterRegistry);
+        this.spooledHits = Counter.builder("ewm.hits.spooled")
+                .description("Hits written to the local spool")
+                .register(meterRegistry);
+        this.droppedHits = Counter.builder("ewm.hits.dropped")
+                .description("Hits lost because of queue overflow or rejection by the stats server")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < workers; i++) {
+            sender.execute(this::drain);
+        }
+        if (overflowPolicy == OverflowPolicy.SPOOL) {
+            sender.execute(this::drainOverflow);
+        }
+    }
+
+    /* не блокирует вызывающий поток */
+    public void dispatch(EndHitDto hit) {
+        if (running && queue.offer(hit)) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.SPOOL && overflow.offer(hit)) {
+            return;
+        }
+        droppedHits.increment();
+        log.debug("Hit queue is full, hit for {} dropped", hit.getUri());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        sender.shutdown();
+        if (!sender.awaitTermination(5, TimeUnit.SECONDS)) {
+            sender.shutdownNow();
+        }
+        List<EndHitDto> rest = new ArrayList<>();
+        overflow.drainTo(rest);
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            spool(rest);
+        }
+    }
+
+    private void drain() {
+        List<EndHitDto> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                EndHitDto first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Hit dispatcher failed to handle a batch: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /* переполнение очереди пишется в журнал здесь, а не в потоке запроса: при fsync ALWAYS запись медленная */
+    private void drainOverflow() {
+        List<EndHitDto> batch = new ArrayList<>(batchSize);
+        while (running || !overflow.isEmpty()) {
+            try {
+                EndHitDto first = overflow.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                overflow.drainTo(batch, batchSize - 1);
+                spool(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Hit dispatcher failed to spool overflowing hits: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /*
+     * Пачка уходит одним запросом POST /hits. Если сервер отверг её с 4xx, хиты досылаются по одному:
+     * отбрасываются только те, что сервер отвергает сам по себе, а не вся пачка из-за одного.
+     */
+    private void send(List<EndHitDto> batch) {
+        try {
+            ResponseEntity<Object> response = statsClient.saveAll(batch);
+            if (response.getStatusCode().is2xxSuccessful()) {
+                sentHits.increment(batch.size());
+            } else if (response.getStatusCode().is4xxClientError()) {
+                log.debug("Stats server rejected a batch of {} hit(s) with {}, sending them one by one",
+                        batch.size(), response.getStatusCode());
+                sendEach(batch);
+            } else {
+                log.warn("Stats server answered {}, {} hit(s) spooled", response.getStatusCode(), batch.size());
+                spool(batch);
+            }
+        } catch (Exception e) {
+            log.warn("Cannot send hits to stats, {} hit(s) spooled: {}", batch.size(), e.getMessage());
+            spool(batch);
+        }
+    }
+
+    /* хиты после первого отказа не по вине хита уходят в журнал */
+    private void sendEach(List<EndHitDto> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            EndHitDto hit = batch.get(i);
+            try {
+                ResponseEntity<Object> response = statsClient.save(hit);
+                if (response.getStatusCode().is2xxSuccessful()) {
+                    sentHits.increment();
+                    continue;
+                }
+                if (response.getStatusCode().is4xxClientError()) {
+                    droppedHits.increment();
+                    log.warn("Stats server rejected hit for {} with {}, dropped",
+                            hit.getUri(), response.getStatusCode());
+                    continue;
+                }
+                log.warn("Stats server answered {}, {} hit(s) spooled", response.getStatusCode(), batch.size() - i);
+            } catch (Exception e) {
+                log.warn("Cannot send hits to stats, {} hit(s) spooled: {}", batch.size() - i, e.getMessage());
+            }
+            spool(batch.subList(i, batch.size()));
+            return;
+        }
+    }
+
+    private void spool(List<EndHitDto> hits) {
+        for (EndHitDto hit : hits) {
+            if (hitSpool.append(hit)) {
+                spooledHits.increment();
+            } else {
+                droppedHits.increment();
+            }
+        }
+    }
+}
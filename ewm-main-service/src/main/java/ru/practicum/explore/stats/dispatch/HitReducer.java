@@ -0,0 +1,107 @@
+package ru.practicum.explore.stats.dispatch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.explore.dto.EndHitDto;
+import ru.practicum.explore.global.tools.BloomFilter;
+
+/**
+ * Сокращает поток хитов от краулеров и частых обновлений страницы.
+ * <p>
+ * DEDUPE: пара фильтров Блума (текущий и предыдущий), которые меняются местами раз в window-ms.
+ * Повтор пары (ip, uri) подавляется не меньше window-ms и не больше 2 × window-ms после первого хита.
+ * <p>
+ * SAMPLE: хит отправляется, если хэш (ip, uri) попадает в долю sample-rate. Все хиты одного
+ * посетителя либо попадают в выборку, либо нет, поэтому уникальные просмотры тоже масштабируются.
+ * Доля записывается в хит, сервер статистики учитывает его с весом 1 / sample-rate.
+ */
+@Component
+public class HitReducer {
+
+    private final HitReductionMode mode;
+    private final long windowMs;
+    private final long expectedPerWindow;
+    private final double falsePositiveRate;
+    private final double sampleRate;
+    private final Counter suppressedHits;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+    private volatile long rotatedAt;
+
+    public HitReducer(MeterRegistry meterRegistry,
+                      @Value("${ewm.hits.reduction.mode:NONE}") HitReductionMode mode,
+                      @Value("${ewm.hits.reduction.window-ms:60000}") long windowMs,
+                      @Value("${ewm.hits.reduction.expected-per-window:100000}") long expectedPerWindow,
+                      @Value("${ewm.hits.reduction.false-positive-rate:0.01}") double falsePositiveRate,
+                      @Value("${ewm.hits.reduction.sample-rate:1.0}") double sampleRate) {
+        if (sampleRate <= 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("ewm.hits.reduction.sample-rate must be in (0, 1]");
+        }
+        this.mode = mode;
+        this.windowMs = windowMs;
+        this.expectedPerWindow = expectedPerWindow;
+        this.falsePositiveRate = falsePositiveRate;
+        this.sampleRate = sampleRate;
+        this.suppressedHits = Counter.builder("ewm.hits.suppressed")
+                .description("Hits skipped by duplicate suppression or sampling")
+                .tag("mode", mode.name())
+                .register(meterRegistry);
+        if (mode == HitReductionMode.DEDUPE) {
+            this.current = new BloomFilter(expectedPerWindow, falsePositiveRate);
+            this.previous = new BloomFilter(expectedPerWindow, falsePositiveRate);
+            this.rotatedAt = System.currentTimeMillis();
+        }
+    }
+
+    /* false — хит отправлять не нужно; в режиме SAMPLE проставляет hit.sampleRate */
+    public boolean admit(EndHitDto hit) {
+        boolean admitted = switch (mode) {
+            case NONE -> true;
+            case DEDUPE -> firstInWindow(hit.getIp() + '|' + hit.getUri());
+            case SAMPLE -> sampled(hit);
+        };
+        if (!admitted) {
+            suppressedHits.increment();
+        }
+        return admitted;
+    }
+
+    private boolean firstInWindow(String key) {
+        rotateIfDue();
+        if (previous.mightContain(key)) {
+            return false;
+        }
+        return current.put(key);
+    }
+
+    private void rotateIfDue() {
+        if (System.currentTimeMillis() - rotatedAt < windowMs) {
+            return;
+        }
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (now - rotatedAt >= windowMs) {
+                previous = current;
+                current = new BloomFilter(expectedPerWindow, falsePositiveRate);
+                rotatedAt = now;
+            }
+        }
+    }
+
+    private boolean sampled(EndHitDto hit) {
+        if (sampleRate >= 1) {
+            return true;
+        }
+        long hash = BloomFilter.hash64(hit.getIp() + '|' + hit.getUri());
+        /* старшие 53 бита хэша как равномерное число из [0, 1) */
+        double position = (hash >>> 11) * 0x1.0p-53;
+        if (position >= sampleRate) {
+            return false;
+        }
+        hit.setSampleRate(sampleRate);
+        return true;
+    }
+}
@@ -0,0 +1,10 @@
+package ru.practicum.explore.stats.dispatch;
+
+public enum HitReductionMode {
+    /* все хиты отправляются как есть */
+    NONE,
+    /* повторные пары (ip, uri) в пределах окна не отправляются */
+    DEDUPE,
+    /* детерминированная выборка по (ip, uri) с передачей sampleRate на сервер */
+    SAMPLE
+}
@@ -0,0 +1,8 @@
+package ru.practicum.explore.stats.dispatch;
+
+public enum OverflowPolicy {
+    /* хит, не поместившийся в очередь, пишется в HitSpool фоновым потоком и будет дослан позже */
+    SPOOL,
+    /* хит отбрасывается, учитывается только в метрике */
+    DROP
+}
@@ -0,0 +1,230 @@
+package ru.practicum.explore.stats.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.practicum.explore.client.StatsClient;
+import ru.practicum.explore.dto.StatDto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Доступ к просмотрам событий из сервиса статистики. Просмотры страницы поиска берутся отсюда,
+ * только если сверка events.views выключена ({@code ewm.views.reconcile.enabled=false}).
+ * <p>
+ * Держит локальный кэш uri → views с коротким TTL. Если к записи обращаются
+ * после {@code refresh-ahead-ms}, она обновляется в фоне, а вызывающий сразу получает
+ * текущее значение — популярные события не ждут сервер статистики. Сверх max-entries
+ * вытесняется запись, к которой дольше всех не обращались.
+ * <p>
+ * Одновременные запросы одного и того же ключа объединяются: в сервис статистики уходит
+ * один вызов, остальные потоки ждут его результат не дольше coalesce-timeout-ms.
+ * <p>
+ * Просмотры считаются за всю историю: в ответах это уникальные зрители, а их нельзя
+ * сложить из сумм по окнам водяного знака.
+ */
+@Service
+@Slf4j
+public class ViewStatsService {
+
+    private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final LocalDateTime STATS_START = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final StatsClient statsClient;
+    private final long ttlMs;
+    private final long refreshAheadMs;
+    private final long coalesceTimeoutMs;
+
+    private final Map<ViewsKey, CachedViews> cache;
+    private final Map<ViewsKey, CompletableFuture<Long>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService refresher = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ViewStatsService(StatsClient statsClient,
+                            @Value("${ewm.views.cache.ttl-ms:5000}") long ttlMs,
+                            @Value("${ewm.views.cache.refresh-ahead-ms:3000}") long refreshAheadMs,
+                            @Value("${ewm.views.cache.max-entries:10000}") int maxEntries,
+                            @Value("${ewm.views.cache.coalesce-timeout-ms:2000}") long coalesceTimeoutMs) {
+        this.statsClient = statsClient;
+        this.ttlMs = ttlMs;
+        this.refreshAheadMs = Math.min(refreshAheadMs, ttlMs);
+        this.coalesceTimeoutMs = coalesceTimeoutMs;
+        /* LinkedHashMap в порядке обращений: get поднимает запись, put сверх лимита вытесняет самую давнюю */
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ViewsKey, CachedViews> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /*
+     * просмотры страницы uri: свежие берутся из кэша, остальные — одним запросом к сервису статистики;
+     * uri, которые уже загружает другой поток, не запрашиваются повторно, а ждут его результат.
+     * Записи старше refresh-ahead-ms отдаются сразу и обновляются одним фоновым запросом
+     */
+    public Map<String, Long> getViews(Collection<String> uris, boolean unique) {
+        Map<String, Long> views = new HashMap<>();
+        Map<ViewsKey, CachedViews> missing = new HashMap<>();
+        Map<ViewsKey, CachedViews> aging = new HashMap<>();
+        long now = System.currentTimeMillis();
+        for (String uri : uris) {
+            ViewsKey key = new ViewsKey(uri, unique);
+            CachedViews cached = cache.get(key);
+            if (cached == null || now - cached.loadedAt() >= ttlMs) {
+                missing.put(key, cached);
+                continue;
+            }
+            views.put(uri, cached.views());
+            if (now - cached.loadedAt() >= refreshAheadMs && cached.refreshing().compareAndSet(false, true)) {
+                aging.put(key, cached);
+            }
+        }
+        if (!aging.isEmpty()) {
+            refresher.execute(() -> refreshAhead(aging, unique));
+        }
+        if (missing.isEmpty()) {
+            return views;
+        }
+        Map<ViewsKey, CompletableFuture<Long>> owned = new HashMap<>();
+        Map<ViewsKey, CompletableFuture<Long>> joined = new HashMap<>();
+        claim(missing.keySet(), owned, joined);
+        try {
+            views.putAll(loadOwned(owned, unique));
+        } catch (RuntimeException e) {
+            serveStale(owned.keySet(), missing, views, e);
+        }
+        joined.forEach((key, pending) -> {
+            try {
+                views.put(key.uri(), await(key, pending));
+            } catch (RuntimeException e) {
+                serveStale(Set.of(key), missing, views, e);
+            }
+        });
+        return views;
+    }
+
+    /* просмотры нескольких uri за период одним запросом, без кэша; uri без хитов в ответе нет */
+    public Map<String, Long> countHits(Collection<String> uris, LocalDateTime start, LocalDateTime end,
+                                       boolean unique) {
+        if (uris.isEmpty()) {
+            return Map.of();
+        }
+        return statsClient.requireStats(start.format(FMT), end.format(FMT), List.copyOf(uris), unique)
+                .stream()
+                .collect(Collectors.toMap(StatDto::getUri, StatDto::getHits, Long::sum));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /* ключи, которые никто не загружает, занимаются этим потоком, остальные — ждут чужой вызов */
+    private void claim(Collection<ViewsKey> keys,
+                       Map<ViewsKey, CompletableFuture<Long>> owned,
+                       Map<ViewsKey, CompletableFuture<Long>> joined) {
+        for (ViewsKey key : keys) {
+            CompletableFuture<Long> call = new CompletableFuture<>();
+            CompletableFuture<Long> pending = inFlight.putIfAbsent(key, call);
+            if (pending == null) {
+                owned.put(key, call);
+            } else {
+                joined.put(key, pending);
+            }
+        }
+    }
+
+    /* фоновое обновление: ключи, которые уже загружает другой поток, пропускаются; при ошибке записи остаются */
+    private void refreshAhead(Map<ViewsKey, CachedViews> aging, boolean unique) {
+        Map<ViewsKey, CompletableFuture<Long>> owned = new HashMap<>();
+        Map<ViewsKey, CompletableFuture<Long>> joined = new HashMap<>();
+        claim(aging.keySet(), owned, joined);
+        joined.keySet().forEach(key -> aging.get(key).refreshing().set(false));
+        try {
+            loadOwned(owned, unique);
+        } catch (RuntimeException e) {
+            log.warn("Stats server unavailable, keeping views of {} uri(s): {}", owned.size(), e.getMessage());
+            owned.keySet().forEach(key -> aging.get(key).refreshing().set(false));
+        }
+    }
+
+    /* загрузка ключей, занятых этим потоком: результат или ошибка достаются и ждущим их потокам */
+    private Map<String, Long> loadOwned(Map<ViewsKey, CompletableFuture<Long>> owned, boolean unique) {
+        if (owned.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            List<String> uris = owned.keySet().stream().map(ViewsKey::uri).toList();
+            Map<String, Long> loaded = requestViews(uris, unique);
+            long loadedAt = System.currentTimeMillis();
+            Map<String, Long> views = new HashMap<>();
+            owned.forEach((key, call) -> {
+                long value = loaded.getOrDefault(key.uri(), 0L);
+                cache.put(key, new CachedViews(value, loadedAt, new AtomicBoolean(false)));
+                call.complete(value);
+                views.put(key.uri(), value);
+            });
+            return views;
+        } catch (RuntimeException e) {
+            owned.values().forEach(call -> call.completeExceptionally(e));
+            throw e;
+        } finally {
+            owned.forEach(inFlight::remove);
+        }
+    }
+
+    /* известные значения вместо не загруженных; без известного значения ошибка пробрасывается */
+    private void serveStale(Set<ViewsKey> keys, Map<ViewsKey, CachedViews> stale, Map<String, Long> views,
+                            RuntimeException e) {
+        if (keys.stream().anyMatch(key -> stale.get(key) == null)) {
+            throw e;
+        }
+        log.warn("Stats server unavailable, serving stale views for {} uri(s): {}", keys.size(), e.getMessage());
+        keys.forEach(key -> views.put(key.uri(), stale.get(key).views()));
+    }
+
+    private Map<String, Long> requestViews(List<String> uris, boolean unique) {
+        return countHits(uris, STATS_START, LocalDateTime.now(), unique);
+    }
+
+    /* ожидание чужого вызова ограничено: зависший запрос не должен копить за собой потоки */
+    private long await(ViewsKey key, CompletableFuture<Long> pending) {
+        try {
+            return pending.get(coalesceTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out waiting for views of " + key.uri());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for views of " + key.uri());
+        }
+    }
+
+    private record ViewsKey(String uri, boolean unique) {
+    }
+
+    private record CachedViews(long views, long loadedAt, AtomicBoolean refreshing) {
+    }
+}
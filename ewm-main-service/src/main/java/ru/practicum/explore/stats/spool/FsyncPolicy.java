@@ -0,0 +1,10 @@
+package ru.practicum.explore.stats.spool;
+
+public enum FsyncPolicy {
+    /* force() после каждой записи — медленно, но ничего не теряется при сбое ОС */
+    ALWAYS,
+    /* force() по расписанию, раз в ewm.hits.spool.fsync-interval-ms */
+    PERIODIC,
+    /* сброс на диск оставляется ОС */
+    NEVER
+}
@@ -0,0 +1,242 @@
+package ru.practicum.explore.stats.spool;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.explore.dto.EndHitDto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Локальный append-only журнал хитов, которые не удалось отправить в сервис статистики.
+ * Хиты пишутся в сегменты, отображённые в память, и вычитываются {@link HitSpoolReplayer}.
+ */
+@Component
+@Slf4j
+public class HitSpool {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".spool";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final FsyncPolicy fsyncPolicy;
+
+    private final Deque<SpoolSegment> segments = new ArrayDeque<>();
+    private long droppedHits;
+
+    public HitSpool(@Value("${ewm.hits.spool.dir:${user.home}/.ewm/hit-spool}") String directory,
+                    @Value("${ewm.hits.spool.segment-bytes:1048576}") int segmentBytes,
+                    @Value("${ewm.hits.spool.max-segments:64}") int maxSegments,
+                    @Value("${ewm.hits.spool.fsync:PERIODIC}") FsyncPolicy fsyncPolicy) {
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    @PostConstruct
+    public synchronized void recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (Path file : files) {
+            try {
+                SpoolSegment segment = SpoolSegment.open(file, sequenceOf(file));
+                int torn = segment.truncateInvalid(HitSpool::isDecodable);
+                if (torn > 0) {
+                    log.warn("Hit spool segment {} has a torn tail, {} byte(s) discarded", file, torn);
+                }
+                if (segment.isDrained()) {
+                    Files.delete(file);
+                } else {
+                    segments.addLast(segment);
+                }
+            } catch (IOException | NumberFormatException e) {
+                log.warn("Skipping unreadable hit spool segment {}: {}", file, e.getMessage());
+            }
+        }
+        if (!segments.isEmpty()) {
+            log.info("Recovered {} hit spool segment(s) with {} pending bytes", segments.size(), pendingBytes());
+        }
+    }
+
+    public synchronized boolean append(EndHitDto hit) {
+        byte[] record = encode(hit);
+        if (record.length + Integer.BYTES > segmentBytes - SpoolSegment.HEADER_BYTES) {
+            log.warn("Hit for {} is too large for the spool, dropped", hit.getUri());
+            droppedHits++;
+            return false;
+        }
+        try {
+            SpoolSegment tail = segments.peekLast();
+            if (tail == null || !tail.append(record)) {
+                if (segments.size() >= maxSegments) {
+                    droppedHits++;
+                    log.warn("Hit spool is full ({} segments), hit for {} dropped", maxSegments, hit.getUri());
+                    return false;
+                }
+                tail = newSegment(tail == null ? 0 : tail.getSequence() + 1);
+                tail.append(record);
+            }
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                tail.force();
+            }
+            return true;
+        } catch (IOException e) {
+            droppedHits++;
+            log.warn("Cannot write hit to spool: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /* читает до max хитов из головы журнала, не сдвигая позицию чтения */
+    public synchronized SpooledHits peek(int max) {
+        dropDrainedHead();
+        SpoolSegment head = segments.peekFirst();
+        if (head == null || max <= 0) {
+            return SpooledHits.EMPTY;
+        }
+        List<EndHitDto> hits = new ArrayList<>();
+        List<Integer> endPositions = new ArrayList<>();
+        int position = head.readPosition();
+        while (hits.size() < max && position < head.writePosition()) {
+            byte[] record = head.recordAt(position);
+            hits.add(decode(record));
+            position += Integer.BYTES + record.length;
+            endPositions.add(position);
+        }
+        return new SpooledHits(head.getSequence(), endPositions, hits);
+    }
+
+    /* подтверждает отправку первых count хитов из пачки */
+    public synchronized void acknowledge(SpooledHits batch, int count) {
+        SpoolSegment head = segments.peekFirst();
+        if (count <= 0 || head == null || head.getSequence() != batch.segment()) {
+            return;
+        }
+        head.acknowledge(batch.endPositions().get(count - 1));
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            head.force();
+        }
+        dropDrainedHead();
+    }
+
+    public synchronized boolean isEmpty() {
+        return segments.stream().allMatch(SpoolSegment::isDrained);
+    }
+
+    public synchronized long pendingBytes() {
+        return segments.stream().mapToLong(SpoolSegment::pendingBytes).sum();
+    }
+
+    public synchronized long droppedHits() {
+        return droppedHits;
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.hits.spool.fsync-interval-ms:1000}")
+    public synchronized void flush() {
+        if (fsyncPolicy == FsyncPolicy.PERIODIC) {
+            segments.forEach(SpoolSegment::force);
+        }
+    }
+
+    /* последний сегмент остаётся открытым для записи, даже если он уже вычитан */
+    private void dropDrainedHead() {
+        while (segments.size() > 1 && segments.peekFirst().isDrained()) {
+            deleteQuietly(segments.pollFirst().getFile());
+        }
+    }
+
+    private SpoolSegment newSegment(long sequence) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        SpoolSegment segment = SpoolSegment.create(file, sequence, segmentBytes);
+        segments.addLast(segment);
+        return segment;
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete drained spool segment {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static byte[] encode(EndHitDto hit) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(nullToEmpty(hit.getApp()));
+            out.writeUTF(nullToEmpty(hit.getUri()));
+            out.writeUTF(nullToEmpty(hit.getIp()));
+            out.writeUTF(nullToEmpty(hit.getTimestamp()));
+            if (hit.getSampleRate() != null) {
+                out.writeDouble(hit.getSampleRate());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static EndHitDto decode(byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            EndHitDto hit = EndHitDto.builder()
+                    .app(in.readUTF())
+                    .uri(in.readUTF())
+                    .ip(in.readUTF())
+                    .timestamp(in.readUTF())
+                    .build();
+            /* доля выборки необязательна и дописывается в конец записи */
+            if (in.available() >= Double.BYTES) {
+                hit.setSampleRate(in.readDouble());
+            }
+            return hit;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* обнулённая страница тоже читается — как хит без uri, которого в журнале быть не может */
+    private static boolean isDecodable(byte[] record) {
+        try {
+            return !decode(record).getUri().isEmpty();
+        } catch (UncheckedIOException e) {
+            return false;
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    public record SpooledHits(long segment, List<Integer> endPositions, List<EndHitDto> hits) {
+        static final SpooledHits EMPTY = new SpooledHits(-1, List.of(), List.of());
+    }
+}
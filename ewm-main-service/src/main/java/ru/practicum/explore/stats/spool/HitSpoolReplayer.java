@@ -0,0 +1,104 @@
+package ru.practicum.explore.stats.spool;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.explore.client.StatsClient;
+import ru.practicum.explore.dto.EndHitDto;
+
+/**
+ * Досылает хиты из {@link HitSpool} в сервис статистики пачками, не быстрее replay-rate хитов в секунду.
+ * При первой же ошибке проход прерывается до следующего запуска.
+ */
+@Component
+@Slf4j
+public class HitSpoolReplayer {
+
+    private final HitSpool spool;
+    private final StatsClient statsClient;
+    private final int batchSize;
+    private final int ratePerSecond;
+    private final long intervalMs;
+
+    public HitSpoolReplayer(HitSpool spool,
+                            StatsClient statsClient,
+                            @Value("${ewm.hits.spool.replay-batch-size:100}") int batchSize,
+                            @Value("${ewm.hits.spool.replay-rate:500}") int ratePerSecond,
+                            @Value("${ewm.hits.spool.replay-interval-ms:1000}") long intervalMs) {
+        this.spool = spool;
+        this.statsClient = statsClient;
+        this.batchSize = batchSize;
+        this.ratePerSecond = ratePerSecond;
+        this.intervalMs = intervalMs;
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.hits.spool.replay-interval-ms:1000}")
+    public void replay() {
+        if (spool.isEmpty()) {
+            return;
+        }
+        long budget = Math.max(1, ratePerSecond * intervalMs / 1000);
+        long sent = 0;
+        while (sent < budget) {
+            HitSpool.SpooledHits batch = spool.peek((int) Math.min(batchSize, budget - sent));
+            if (batch.hits().isEmpty()) {
+                break;
+            }
+            int delivered = send(batch);
+            spool.acknowledge(batch, delivered);
+            sent += delivered;
+            if (delivered < batch.hits().size()) {
+                break;
+            }
+        }
+        if (sent > 0) {
+            log.info("Replayed {} spooled hit(s), {} bytes still pending", sent, spool.pendingBytes());
+        }
+    }
+
+    /*
+     * Пачка уходит одним запросом POST /hits. Если сервер отверг её с 4xx, хиты досылаются по одному:
+     * отбрасываются только те, что сервер отвергает сам по себе, а не вся пачка из-за одного.
+     */
+    private int send(HitSpool.SpooledHits batch) {
+        try {
+            ResponseEntity<Object> response = statsClient.saveAll(batch.hits());
+            if (response.getStatusCode().is4xxClientError()) {
+                log.debug("Stats server rejected a batch of {} hit(s) with {}, sending them one by one",
+                        batch.hits().size(), response.getStatusCode());
+                return sendEach(batch);
+            }
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                log.debug("Stats server answered {}, replay postponed", response.getStatusCode());
+                return 0;
+            }
+            return batch.hits().size();
+        } catch (Exception e) {
+            log.debug("Stats server still unavailable, replay postponed: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /* возвращает количество хитов, успешно принятых или отвергнутых сервером, считая от начала пачки */
+    private int sendEach(HitSpool.SpooledHits batch) {
+        int delivered = 0;
+        try {
+            for (EndHitDto hit : batch.hits()) {
+                ResponseEntity<Object> response = statsClient.save(hit);
+                if (response.getStatusCode().is4xxClientError()) {
+                    log.warn("Stats server rejected spooled hit for {} with {}, dropped",
+                            hit.getUri(), response.getStatusCode());
+                } else if (!response.getStatusCode().is2xxSuccessful()) {
+                    log.debug("Stats server answered {}, replay postponed", response.getStatusCode());
+                    return delivered;
+                }
+                delivered++;
+            }
+        } catch (Exception e) {
+            log.debug("Stats server still unavailable, replay postponed: {}", e.getMessage());
+        }
+        return delivered;
+    }
+}
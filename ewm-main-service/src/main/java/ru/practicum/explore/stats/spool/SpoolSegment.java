@@ -0,0 +1,137 @@
+package ru.practicum.explore.stats.spool;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Predicate;
+
+/**
+ * Файл фиксированного размера, отображённый в память.
+ * Заголовок: magic, позиция записи, позиция чтения. Далее записи вида [length:int][payload].
+ * Позиция записи в заголовке обновляется после записи, но страницы файла могут попасть на диск
+ * в любом порядке, поэтому после сбоя хвост сегмента проверяется ({@link #truncateInvalid}).
+ */
+class SpoolSegment {
+
+    static final int HEADER_BYTES = 16;
+
+    private static final int MAGIC = 0x45574D53;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int WRITE_POS_OFFSET = 4;
+    private static final int READ_POS_OFFSET = 8;
+
+    @Getter
+    private final long sequence;
+    @Getter
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private int writePos;
+    private int readPos;
+
+    private SpoolSegment(long sequence, Path file, MappedByteBuffer buffer, int writePos, int readPos) {
+        this.sequence = sequence;
+        this.file = file;
+        this.buffer = buffer;
+        this.writePos = writePos;
+        this.readPos = readPos;
+    }
+
+    static SpoolSegment create(Path file, long sequence, int capacity) throws IOException {
+        MappedByteBuffer buffer = map(file, capacity);
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(WRITE_POS_OFFSET, HEADER_BYTES);
+        buffer.putInt(READ_POS_OFFSET, HEADER_BYTES);
+        return new SpoolSegment(sequence, file, buffer, HEADER_BYTES, HEADER_BYTES);
+    }
+
+    static SpoolSegment open(Path file, long sequence) throws IOException {
+        MappedByteBuffer buffer = map(file, (int) Files.size(file));
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+            throw new IOException("Not a spool segment: " + file);
+        }
+        int writePos = buffer.getInt(WRITE_POS_OFFSET);
+        int readPos = buffer.getInt(READ_POS_OFFSET);
+        if (writePos < HEADER_BYTES || writePos > buffer.capacity() || readPos < HEADER_BYTES || readPos > writePos) {
+            throw new IOException("Corrupted spool segment header: " + file);
+        }
+        return new SpoolSegment(sequence, file, buffer, writePos, readPos);
+    }
+
+    boolean append(byte[] record) {
+        if (writePos + Integer.BYTES + record.length > buffer.capacity()) {
+            return false;
+        }
+        buffer.putInt(writePos, record.length);
+        buffer.put(writePos + Integer.BYTES, record);
+        writePos += Integer.BYTES + record.length;
+        buffer.putInt(WRITE_POS_OFFSET, writePos);
+        return true;
+    }
+
+    /*
+     * Обрезает сегмент по первой записи, которая выходит за позицию записи или не проходит проверку:
+     * после неё ничего надёжного уже нет. Возвращает число отброшенных байт.
+     */
+    int truncateInvalid(Predicate<byte[]> valid) {
+        int position = readPos;
+        while (position < writePos) {
+            int length = position + Integer.BYTES <= writePos ? buffer.getInt(position) : -1;
+            if (length <= 0 || length > writePos - position - Integer.BYTES
+                    || !valid.test(recordAt(position))) {
+                break;
+            }
+            position += Integer.BYTES + length;
+        }
+        int dropped = writePos - position;
+        if (dropped > 0) {
+            writePos = position;
+            buffer.putInt(WRITE_POS_OFFSET, writePos);
+        }
+        return dropped;
+    }
+
+    int readPosition() {
+        return readPos;
+    }
+
+    int writePosition() {
+        return writePos;
+    }
+
+    /* читает запись, начинающуюся с position; позиция следующей записи = position + 4 + length */
+    byte[] recordAt(int position) {
+        int length = buffer.getInt(position);
+        byte[] record = new byte[length];
+        buffer.get(position + Integer.BYTES, record);
+        return record;
+    }
+
+    void acknowledge(int position) {
+        readPos = Math.max(readPos, Math.min(position, writePos));
+        buffer.putInt(READ_POS_OFFSET, readPos);
+    }
+
+    boolean isDrained() {
+        return readPos == writePos;
+    }
+
+    int pendingBytes() {
+        return writePos - readPos;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    private static MappedByteBuffer map(Path file, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+}
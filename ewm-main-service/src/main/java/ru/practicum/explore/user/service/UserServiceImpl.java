@@ -12,6 +12,8 @@ import ru.practicum.explore.common.exception.ConflictException;
 import ru.practicum.explore.common.exception.NotFoundException;
 import ru.practicum.explore.event.model.Event;
 import ru.practicum.explore.event.repository.EventRepository;
+import ru.practicum.explore.event.service.EventSearchCache;
+import ru.practicum.explore.event.service.EventSearchIndex;
 import ru.practicum.explore.global.dto.Statuses;
 import ru.practicum.explore.user.dto.*;
 import ru.practicum.explore.user.mapper.UserMapperNew;
@@ -35,6 +37,8 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final RequestRepository requestRepository;
     private final EventRepository eventRepository;
+    private final EventSearchIndex eventSearchIndex;
+    private final EventSearchCache eventSearchCache;
 
     @Override
     public Collection<RequestDto> getUserRequests(long userId) {
@@ -110,8 +114,7 @@ public class UserServiceImpl implements UserService {
         req.setCreatedDate(LocalDateTime.now());
         if (Boolean.FALSE.equals(event.getRequestModeration()) || event.getParticipantLimit() == 0) {
             req.setStatus(Statuses.CONFIRMED.name());
-            event.setConfirmedRequests(event.getConfirmedRequests() + 1);
-            eventRepository.save(event);
+            addConfirmed(event, 1);
         } else {
             req.setStatus(Statuses.PENDING.name());
         }
@@ -146,6 +149,17 @@ public class UserServiceImpl implements UserService {
                 requestRepository.findByEventId(eventId).orElse(List.of()));
     }
 
+    /* кэш поиска сбрасывается, только если событие заполнилось — выдача onlyAvailable меняется */
+    private void addConfirmed(Event event, int count) {
+        boolean hadFreeSlots = event.hasFreeSlots();
+        event.setConfirmedRequests(event.getConfirmedRequests() + count);
+        Event saved = eventRepository.save(event);
+        eventSearchIndex.update(saved);
+        if (hadFreeSlots != saved.hasFreeSlots()) {
+            eventSearchCache.invalidate(saved);
+        }
+    }
+
     private ResponseInformationAboutRequests buildUpdateResult(List<Request> requests) {
 
         List<RequestDto> confirmed = new ArrayList<>();
@@ -199,8 +213,7 @@ public class UserServiceImpl implements UserService {
 
         // 4. обновляем счётчик confirm-ов, если нужно
         if (Statuses.CONFIRMED.name().equals(dto.getStatus())) {
-            event.setConfirmedRequests(event.getConfirmedRequests() + requests.size());
-            eventRepository.save(event);
+            addConfirmed(event, requests.size());
         }
 
         return buildUpdateResult(requests);   // ваш каскадный мап-метод
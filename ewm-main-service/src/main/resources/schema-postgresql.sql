@@ -0,0 +1,9 @@
+CREATE INDEX IF NOT EXISTS idx_events_search_text ON events
+    USING GIN (to_tsvector('russian', COALESCE(annotation, '') || ' ' || COALESCE(description, '')));
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_events_search_trgm ON events
+    USING GIN (LOWER(COALESCE(annotation, '') || ' ' || COALESCE(description, '')) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_events_available ON events (state, event_date DESC, id)
+    WHERE participant_limit = 0 OR confirmed_requests < participant_limit;
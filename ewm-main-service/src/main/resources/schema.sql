@@ -12,7 +12,8 @@ CREATE TABLE IF NOT EXISTS users (
 CREATE TABLE IF NOT EXISTS locations (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     lat REAL NOT NULL,
-    lon REAL NOT NULL
+    lon REAL NOT NULL,
+    cell BIGINT
 );
 
 CREATE TABLE IF NOT EXISTS events (
@@ -67,4 +68,26 @@ CREATE TABLE IF NOT EXISTS comments (
     user_id BIGINT REFERENCES users(id) ON DELETE CASCADE NOT NULL,
     event_id BIGINT REFERENCES events(id) ON DELETE CASCADE NOT NULL,
     create_date TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT now()
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS event_viewers (
+    event_id BIGINT NOT NULL,
+    ip_hash BIGINT NOT NULL,
+    seen_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT now(),
+    PRIMARY KEY (event_id, ip_hash),
+    FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE
+);
+
+UPDATE events SET views = 0 WHERE views IS NULL;
+ALTER TABLE events ALTER COLUMN views SET DEFAULT 0;
+ALTER TABLE locations ADD COLUMN IF NOT EXISTS cell BIGINT;
+UPDATE locations
+   SET cell = LEAST(FLOOR((CAST(lat AS DOUBLE PRECISION) + 90) * 10), 1799) * 3600
+            + LEAST(FLOOR((CAST(lon AS DOUBLE PRECISION) + 180) * 10), 3599)
+ WHERE cell IS NULL;
+CREATE INDEX IF NOT EXISTS idx_events_state_views ON events (state, views DESC, id);
+CREATE INDEX IF NOT EXISTS idx_events_state_event_date ON events (state, event_date DESC, id);
+CREATE INDEX IF NOT EXISTS idx_events_initiator ON events (initiator_id, id);
+CREATE INDEX IF NOT EXISTS idx_locations_cell ON locations (cell);
+ALTER TABLE event_viewers ADD COLUMN IF NOT EXISTS seen_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT now();
+CREATE INDEX IF NOT EXISTS idx_event_viewers_seen_at ON event_viewers (seen_at);
@@ -0,0 +1,68 @@
+package ru.practicum.explore.event.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.explore.common.exception.BadRequestException;
+import ru.practicum.explore.event.dto.EventPage;
+import ru.practicum.explore.event.service.EventService;
+import ru.practicum.explore.global.controller.GlobalExceptionHandler;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class EventControllerTest {
+
+    @Mock
+    private EventService eventService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void init() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new EventController(eventService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Курсор следующей страницы приходит в X-Next-Cursor, на последней странице заголовка нет")
+    void shouldSendNextCursorUntilLastPage() throws Exception {
+        doReturn(new EventPage<>(List.of(), "next")).when(eventService).findEvents(any(), any(), any(), any(),
+                any(), any(), any(), any(), any(), any(), any(), any(), isNull(), any(), any());
+        doReturn(new EventPage<>(List.of(), null)).when(eventService).findEvents(any(), any(), any(), any(),
+                any(), any(), any(), any(), any(), any(), any(), any(), eq("next"), any(), any());
+
+        mockMvc.perform(get("/events"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(EventController.NEXT_CURSOR_HEADER, "next"));
+        mockMvc.perform(get("/events").param("cursor", "next"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(EventController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @DisplayName("Курсор, выданный для другой сортировки, — 400")
+    void shouldRejectCursorOfAnotherSort() throws Exception {
+        when(eventService.findEvents(any(), any(), any(), any(), any(), any(), eq("VIEWS"), any(), any(), any(),
+                any(), any(), eq("by-date"), any(), any()))
+                .thenThrow(new BadRequestException("Cursor was issued for another sort order: by-date"));
+
+        mockMvc.perform(get("/events").param("sort", "VIEWS").param("cursor", "by-date"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.explore.event.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.explore.common.exception.BadRequestException;
+import ru.practicum.explore.event.model.Event;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventCursorTest {
+
+    @Test
+    @DisplayName("Курсор любой сортировки восстанавливается из своей строки")
+    void shouldRoundTrip() {
+        Event last = new Event();
+        last.setId(42L);
+        last.setEventDate(LocalDateTime.of(2030, 5, 17, 19, 30, 15));
+        last.setViews(1234L);
+
+        for (EventCursor.Key key : EventCursor.Key.values()) {
+            EventCursor cursor = EventCursor.after(key, last);
+
+            EventCursor decoded = EventCursor.decode(cursor.encode(), key);
+
+            assertEquals(cursor, decoded);
+            assertEquals(42L, decoded.id());
+        }
+        assertEquals(last.getEventDate(),
+                EventCursor.decode(EventCursor.after(EventCursor.Key.EVENT_DATE, last).encode(),
+                        EventCursor.Key.EVENT_DATE).eventDate());
+        assertEquals(1234L, EventCursor.decode(EventCursor.after(EventCursor.Key.VIEWS, last).encode(),
+                EventCursor.Key.VIEWS).views());
+    }
+
+    @Test
+    @DisplayName("Курсор другой сортировки и повреждённая строка — ошибка запроса")
+    void shouldRejectForeignOrBrokenCursor() {
+        Event last = new Event();
+        last.setId(1L);
+        last.setViews(5L);
+        String byViews = EventCursor.after(EventCursor.Key.VIEWS, last).encode();
+
+        assertThrows(BadRequestException.class, () -> EventCursor.decode(byViews, EventCursor.Key.EVENT_DATE));
+        assertThrows(BadRequestException.class, () -> EventCursor.decode("not a cursor", EventCursor.Key.ID));
+        assertThrows(BadRequestException.class, () -> EventCursor.decode(
+                byViews.substring(0, byViews.length() - 3), EventCursor.Key.VIEWS));
+    }
+}
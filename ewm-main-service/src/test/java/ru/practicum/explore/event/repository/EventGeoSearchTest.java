@@ -0,0 +1,87 @@
+package ru.practicum.explore.event.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.explore.event.model.Event;
+import ru.practicum.explore.event.model.GeoGrid;
+import ru.practicum.explore.event.model.Location;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Поиск по кругу через ячейки сетки находит ровно те события, что и перебор всех точек.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(EventSearchRepository.class)
+class EventGeoSearchTest {
+
+    private static final double[][] CIRCLES = {
+            {56.25, 38.12, 1}, {56.25, 38.12, 15}, {55.80, 37.70, 30}, {56.70, 38.60, 5}, {56.0, 38.0, 200}
+    };
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private EventSearchRepository eventSearchRepository;
+
+    @BeforeEach
+    void init() {
+        EventSearchDataset.persist(entityManager, 1000);
+    }
+
+    @Test
+    @DisplayName("Результат совпадает с точным расстоянием до каждой точки")
+    void shouldMatchBruteForce() {
+        List<Event> all = eventRepository.findAll(Sort.by("id"));
+        for (double[] circle : CIRCLES) {
+            GeoCircle near = new GeoCircle(circle[0], circle[1], circle[2]);
+            List<Long> expected = all.stream()
+                    .filter(event -> distanceKm(near, event.getLocation()) <= near.radiusKm())
+                    .map(Event::getId)
+                    .toList();
+
+            List<Long> actual = eventSearchRepository.search(EventFilter.builder().near(near).build(),
+                            PageRequest.of(0, all.size(), Sort.by("id"))).stream()
+                    .map(Event::getId)
+                    .toList();
+
+            if (near.radiusKm() > 10) {
+                assertFalse(expected.isEmpty(), "в круге " + near + " нет событий");
+            }
+            assertEquals(expected, actual, near.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Круг у линии перемены дат покрывает ячейки по обе стороны от неё")
+    void shouldCoverAntimeridian() {
+        List<GeoGrid.CellRange> ranges = GeoGrid.cover(65.0, 179.95, 20);
+
+        assertTrue(ranges.stream().anyMatch(range -> contains(range, GeoGrid.cellOf(65.0f, 179.99f))));
+        assertTrue(ranges.stream().anyMatch(range -> contains(range, GeoGrid.cellOf(65.0f, -179.9f))));
+        assertFalse(ranges.stream().anyMatch(range -> contains(range, GeoGrid.cellOf(65.0f, 0f))));
+    }
+
+    private static double distanceKm(GeoCircle near, Location location) {
+        return GeoGrid.distanceKm(location.getLat(), location.getLon(), near.lat(), near.lon());
+    }
+
+    private static boolean contains(GeoGrid.CellRange range, long cell) {
+        return range.from() <= cell && cell <= range.to();
+    }
+}
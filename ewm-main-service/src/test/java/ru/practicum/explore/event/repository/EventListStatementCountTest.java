@@ -0,0 +1,136 @@
+package ru.practicum.explore.event.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.explore.event.mapper.EventMapperNew;
+import ru.practicum.explore.event.model.Event;
+import ru.practicum.explore.global.dto.Statuses;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Страница событий вместе с категориями, инициаторами и локациями загружается
+ * фиксированным числом SQL-запросов, не зависящим от размера страницы.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(EventSearchRepository.class)
+class EventListStatementCountTest {
+
+    private static final int[] PAGE_SIZES = {1, 10, 50};
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private EventSearchRepository eventSearchRepository;
+
+    private EventSearchDataset dataset;
+    private Statistics statistics;
+
+    @BeforeEach
+    void init() {
+        dataset = EventSearchDataset.persist(entityManager, 400);
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Публичный поиск: один запрос на страницу")
+    void publicSearchPage() {
+        for (int size : PAGE_SIZES) {
+            EventFilter filter = EventFilter.builder()
+                    .states(List.of(Statuses.PUBLISHED.name()))
+                    .rangeStart(EventSearchDataset.BASE.minusDays(60))
+                    .rangeEnd(EventSearchDataset.BASE.plusDays(60))
+                    .build();
+            PageRequest page = PageRequest.of(0, size, Sort.by(Sort.Order.desc("eventDate"), Sort.Order.asc("id")));
+
+            assertStatements(1, size, () -> eventSearchRepository.search(filter, page));
+        }
+    }
+
+    @Test
+    @DisplayName("Краткое представление: один запрос, сущности не загружаются")
+    void publicSummaryPage() {
+        for (int size : PAGE_SIZES) {
+            EventFilter filter = EventFilter.builder()
+                    .states(List.of(Statuses.PUBLISHED.name()))
+                    .rangeStart(EventSearchDataset.BASE.minusDays(60))
+                    .rangeEnd(EventSearchDataset.BASE.plusDays(60))
+                    .build();
+            PageRequest page = PageRequest.of(0, size, Sort.by(Sort.Order.desc("eventDate"), Sort.Order.asc("id")));
+            entityManager.clear();
+            statistics.clear();
+
+            List<EventSummary> summaries = eventSearchRepository.searchSummaries(filter, page);
+            EventMapperNew.mapToEventShortDto(summaries);
+
+            assertEquals(size, summaries.size(), "размер страницы");
+            assertEquals(1, statistics.getPrepareStatementCount(), "SQL-запросов на страницу из " + size);
+            assertEquals(0, statistics.getEntityLoadCount(), "загружено сущностей");
+            assertEquals(eventSearchRepository.search(filter, page).stream().map(Event::getId).toList(),
+                    summaries.stream().map(EventSummary::id).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Поиск администратора: один запрос на страницу")
+    void adminSearchPage() {
+        for (int size : PAGE_SIZES) {
+            EventFilter filter = EventFilter.builder()
+                    .users(dataset.users)
+                    .categories(dataset.categories)
+                    .build();
+
+            assertStatements(1, size, () -> eventSearchRepository.search(filter, PageRequest.of(0, size,
+                    Sort.by("id"))));
+        }
+    }
+
+    @Test
+    @DisplayName("Догрузка найденных по индексу id: один запрос")
+    void findAllByIdIn() {
+        List<Long> ids = eventRepository.findAll(PageRequest.of(0, 50)).map(Event::getId).getContent();
+        for (int size : PAGE_SIZES) {
+            assertStatements(1, size, () -> eventRepository.findAllByIdIn(ids.subList(0, size)));
+        }
+    }
+
+    @Test
+    @DisplayName("События пользователя: один запрос на страницу")
+    void userEventsPage() {
+        for (int size : PAGE_SIZES) {
+            EventFilter filter = EventFilter.builder()
+                    .users(List.of(dataset.users.getFirst()))
+                    .build();
+
+            assertStatements(1, size, () -> eventSearchRepository.search(filter, PageRequest.of(0, size,
+                    Sort.by("id"))));
+        }
+    }
+
+    private void assertStatements(long expected, int size, Supplier<List<Event>> query) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<Event> events = query.get();
+        EventMapperNew.mapToResponseEventDto(events);
+
+        assertEquals(size, events.size(), "размер страницы");
+        assertEquals(expected, statistics.getPrepareStatementCount(), "SQL-запросов на страницу из " + size);
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.explore.event.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.explore.global.dto.Statuses;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Пропускная способность поиска: прежние 24 JPQL-запроса против одного Criteria-запроса
+ * на одних и тех же данных и страницах.
+ * Запуск: mvn -pl ewm-main-service -am test -Pbenchmark
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(EventSearchRepository.class)
+@Tag("benchmark")
+class EventSearchBenchmarkTest {
+
+    private static final int EVENTS = 20_000;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1000;
+    private static final int PAGE = 10;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EventSearchRepository eventSearchRepository;
+
+    @Test
+    void publicAndAdminSearch() {
+        EventSearchDataset dataset = EventSearchDataset.persist(entityManager, EVENTS);
+        Map<String, Object> params = new HashMap<>();
+        params.put("start", EventSearchDataset.BASE.minusDays(20));
+        params.put("end", EventSearchDataset.BASE.plusDays(40));
+        params.put("state", Statuses.PUBLISHED.name());
+        params.put("paid", true);
+        params.put("text1", EventSearchDataset.TEXT);
+        params.put("text2", EventSearchDataset.TEXT);
+        params.put("catId", dataset.categories.subList(0, 2));
+        params.put("users", dataset.users.subList(0, 3));
+        params.put("states", List.of(Statuses.PUBLISHED.name()));
+        params.put("categories", dataset.categories.subList(0, 2));
+
+        System.out.println("query                                     legacy q/s  criteria q/s");
+        for (int mask = 0; mask < 16; mask++) {
+            boolean text = (mask & 1) != 0;
+            boolean categories = (mask & 2) != 0;
+            boolean onlyAvailable = (mask & 4) != 0;
+            boolean paid = (mask & 8) != 0;
+            report(LegacyEventQueries.publicQuery(text, categories, onlyAvailable, paid), params,
+                    EventFilter.builder()
+                            .states(List.of(Statuses.PUBLISHED.name()))
+                            .text(text ? EventSearchDataset.TEXT : null)
+                            .categories(categories ? dataset.categories.subList(0, 2) : null)
+                            .onlyAvailable(onlyAvailable)
+                            .paid(paid)
+                            .rangeStart(EventSearchDataset.BASE.minusDays(20))
+                            .rangeEnd(EventSearchDataset.BASE.plusDays(40))
+                            .build());
+        }
+        for (int mask = 0; mask < 8; mask++) {
+            boolean users = (mask & 1) != 0;
+            boolean states = (mask & 2) != 0;
+            boolean categories = (mask & 4) != 0;
+            report(LegacyEventQueries.adminQuery(users, states, categories), params,
+                    EventFilter.builder()
+                            .users(users ? dataset.users.subList(0, 3) : null)
+                            .states(states ? List.of(Statuses.PUBLISHED.name()) : null)
+                            .categories(categories ? dataset.categories.subList(0, 2) : null)
+                            .rangeStart(EventSearchDataset.BASE.minusDays(20))
+                            .rangeEnd(EventSearchDataset.BASE.plusDays(40))
+                            .build());
+        }
+    }
+
+    private void report(String legacyQuery, Map<String, Object> params, EventFilter filter) {
+        Pageable page = PageRequest.of(0, PAGE, Sort.by("id"));
+        Supplier<Integer> legacy = () -> LegacyEventQueries.run(entityManager, legacyQuery, params, 0, PAGE).size();
+        Supplier<Integer> criteria = () -> eventSearchRepository.search(filter, page).size();
+        assertEquals(legacy.get(), criteria.get(), legacyQuery);
+
+        System.out.printf("%-40s %11.0f %13.0f%n", legacyQuery, throughput(legacy), throughput(criteria));
+    }
+
+    private double throughput(Supplier<Integer> search) {
+        for (int i = 0; i < WARMUP; i++) {
+            search.get();
+            entityManager.clear();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            search.get();
+            entityManager.clear();
+        }
+        return ITERATIONS / ((System.nanoTime() - start) / 1e9);
+    }
+}
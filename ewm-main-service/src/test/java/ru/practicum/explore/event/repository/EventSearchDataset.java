@@ -0,0 +1,84 @@
+package ru.practicum.explore.event.repository;
+
+import jakarta.persistence.EntityManager;
+import ru.practicum.explore.category.model.Category;
+import ru.practicum.explore.event.model.Event;
+import ru.practicum.explore.event.model.Location;
+import ru.practicum.explore.global.dto.Statuses;
+import ru.practicum.explore.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Детерминированный набор событий для тестов поиска: все фильтры встречаются
+ * и выполненными, и невыполненными, искомое слово — в разном регистре и в разных полях.
+ */
+final class EventSearchDataset {
+
+    static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 12, 0);
+    static final String TEXT = "jazz";
+
+    private static final String[] STATES = {
+            Statuses.PENDING.name(), Statuses.PUBLISHED.name(), Statuses.PUBLISHED.name(), Statuses.CANCELED.name()
+    };
+
+    final List<Long> users = new ArrayList<>();
+    final List<Long> categories = new ArrayList<>();
+
+    private EventSearchDataset() {
+    }
+
+    static EventSearchDataset persist(EntityManager entityManager, int events) {
+        EventSearchDataset dataset = new EventSearchDataset();
+        Random random = new Random(41);
+        List<User> users = new ArrayList<>();
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User user = new User();
+            user.setName("Организатор " + i);
+            user.setEmail("user" + i + "@example.com");
+            entityManager.persist(user);
+            users.add(user);
+            dataset.users.add(user.getId());
+
+            Category category = new Category();
+            category.setName("Категория " + i);
+            entityManager.persist(category);
+            categories.add(category);
+            dataset.categories.add(category.getId());
+        }
+        for (int i = 0; i < events; i++) {
+            Location location = new Location();
+            location.setLat(55.75f + random.nextFloat());
+            location.setLon(37.62f + random.nextFloat());
+            entityManager.persist(location);
+
+            Event event = new Event();
+            event.setTitle("Событие " + i);
+            event.setAnnotation(switch (i % 5) {
+                case 0 -> "Вечер JAZZ в парке " + i;
+                case 1 -> "Лекция об истории " + i;
+                default -> "Встреча " + i;
+            });
+            event.setDescription(i % 7 == 0 ? "Играет Jazz-бэнд " + i : "Описание события " + i);
+            event.setCategory(categories.get(random.nextInt(categories.size())));
+            event.setInitiator(users.get(random.nextInt(users.size())));
+            event.setLocation(location);
+            event.setEventDate(BASE.plusHours(random.nextInt(24 * 120) - 24 * 60));
+            event.setPaid(random.nextBoolean());
+            Integer limit = random.nextInt(3) == 0 ? null : random.nextInt(50);
+            event.setParticipantLimit(limit);
+            event.setConfirmedRequests(limit == null ? 0L : random.nextInt(limit + 1));
+            event.setRequestModeration(random.nextBoolean());
+            event.setState(STATES[random.nextInt(STATES.length)]);
+            event.setViews(0L);
+            entityManager.persist(event);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return dataset;
+    }
+}
@@ -0,0 +1,153 @@
+package ru.practicum.explore.event.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.explore.event.model.Event;
+import ru.practicum.explore.event.service.EventSearchIndex;
+import ru.practicum.explore.global.dto.Statuses;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(EventSearchRepository.class)
+class EventSearchEquivalenceTest {
+
+    private static final int LIMIT = 1000;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EventSearchRepository eventSearchRepository;
+    @Autowired
+    private EventRepository eventRepository;
+
+    private EventSearchDataset dataset;
+
+    @BeforeEach
+    void init() {
+        dataset = EventSearchDataset.persist(entityManager, 1000);
+    }
+
+    @Test
+    @DisplayName("Публичный поиск совпадает со всеми 16 прежними запросами")
+    void shouldMatchLegacyPublicQueries() {
+        for (int mask = 0; mask < 16; mask++) {
+            boolean text = (mask & 1) != 0;
+            boolean categories = (mask & 2) != 0;
+            boolean onlyAvailable = (mask & 4) != 0;
+            boolean paid = (mask & 8) != 0;
+
+            Map<String, Object> params = range();
+            params.put("state", Statuses.PUBLISHED.name());
+            params.put("paid", true);
+            params.put("text1", EventSearchDataset.TEXT);
+            params.put("text2", EventSearchDataset.TEXT);
+            params.put("catId", dataset.categories.subList(0, 2));
+            EventFilter filter = EventFilter.builder()
+                    .states(List.of(Statuses.PUBLISHED.name()))
+                    .text(text ? EventSearchDataset.TEXT : null)
+                    .categories(categories ? dataset.categories.subList(0, 2) : null)
+                    .onlyAvailable(onlyAvailable)
+                    .paid(paid)
+                    .rangeStart(EventSearchDataset.BASE.minusDays(20))
+                    .rangeEnd(EventSearchDataset.BASE.plusDays(40))
+                    .build();
+
+            assertEquivalent(LegacyEventQueries.publicQuery(text, categories, onlyAvailable, paid), params, filter);
+        }
+    }
+
+    @Test
+    @DisplayName("Поиск администратора совпадает со всеми 8 прежними запросами")
+    void shouldMatchLegacyAdminQueries() {
+        for (int mask = 0; mask < 8; mask++) {
+            boolean users = (mask & 1) != 0;
+            boolean states = (mask & 2) != 0;
+            boolean categories = (mask & 4) != 0;
+
+            Map<String, Object> params = range();
+            params.put("users", dataset.users.subList(0, 3));
+            params.put("states", List.of(Statuses.PUBLISHED.name(), Statuses.CANCELED.name()));
+            params.put("categories", dataset.categories.subList(1, 4));
+            EventFilter filter = EventFilter.builder()
+                    .users(users ? dataset.users.subList(0, 3) : null)
+                    .states(states ? List.of(Statuses.PUBLISHED.name(), Statuses.CANCELED.name()) : null)
+                    .categories(categories ? dataset.categories.subList(1, 4) : null)
+                    .rangeStart(EventSearchDataset.BASE.minusDays(20))
+                    .rangeEnd(EventSearchDataset.BASE.plusDays(40))
+                    .build();
+
+            assertEquivalent(LegacyEventQueries.adminQuery(users, states, categories), params, filter);
+        }
+    }
+
+    @Test
+    @DisplayName("Индекс в памяти находит те же события и в том же порядке, что и поиск в БД")
+    void shouldMatchSearchIndex() {
+        EventSearchIndex index = new EventSearchIndex(eventRepository, new SimpleMeterRegistry(),
+                EventSearchRepository.TextMode.INDEX, 100);
+        index.rebuild();
+        Sort byDate = Sort.by(Sort.Order.desc("eventDate"), Sort.Order.asc("id"));
+        Sort byRelevance = Sort.by(Sort.Order.desc(EventSearchRepository.RELEVANCE), Sort.Order.asc("id"));
+        int found = 0;
+
+        for (String text : List.of(EventSearchDataset.TEXT, "JAZZ в", "jaz", "ja", "z-б", "парке 1", "0 играет",
+                "событие")) {
+            for (int mask = 0; mask < 8; mask++) {
+                EventFilter filter = EventFilter.builder()
+                        .states(List.of(Statuses.PUBLISHED.name()))
+                        .text(text)
+                        .categories((mask & 1) != 0 ? dataset.categories.subList(0, 2) : null)
+                        .onlyAvailable((mask & 2) != 0)
+                        .paid((mask & 4) != 0)
+                        .rangeStart(EventSearchDataset.BASE.minusDays(20))
+                        .rangeEnd(EventSearchDataset.BASE.plusDays(40))
+                        .build();
+                String description = text + ", mask " + mask;
+                List<Long> byIndex = index.search(filter, false, 0, LIMIT);
+                found += byIndex.size();
+
+                assertEquals(ids(eventSearchRepository.search(filter, PageRequest.of(0, LIMIT, byDate))),
+                        byIndex, description);
+                assertEquals(ids(eventSearchRepository.search(filter, PageRequest.of(0, LIMIT, byRelevance))),
+                        index.search(filter, true, 0, LIMIT), description);
+            }
+        }
+        assertTrue(found > 0, "индекс должен что-то находить на тестовых данных");
+    }
+
+    private void assertEquivalent(String legacyQuery, Map<String, Object> params, EventFilter filter) {
+        List<Long> expected = ids(LegacyEventQueries.run(entityManager, legacyQuery, params, 0, LIMIT));
+        List<Long> actual = ids(eventSearchRepository.search(filter, PageRequest.of(0, LIMIT, Sort.by("id"))));
+
+        assertFalse(expected.isEmpty(), legacyQuery + " должен что-то находить на тестовых данных");
+        assertEquals(expected, actual, legacyQuery);
+    }
+
+    private static Map<String, Object> range() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("start", EventSearchDataset.BASE.minusDays(20));
+        params.put("end", EventSearchDataset.BASE.plusDays(40));
+        return params;
+    }
+
+    private static List<Long> ids(List<Event> events) {
+        return events.stream().map(Event::getId).toList();
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.explore.event.repository;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.practicum.explore.event.model.GeoGrid;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Поиск «рядом со мной» по миллиону точек на PostgreSQL: точное расстояние до каждой точки
+ * против диапазонов ячеек GeoGrid по индексу с расстоянием только для кандидатов.
+ * Точки сгущаются вокруг нескольких городов, как реальные места событий; формула ячейки — из schema.sql.
+ * Данные создаются во временной таблице и живут до конца соединения.
+ * Запуск: mvn -pl ewm-main-service -am test -Pbenchmark -Dbenchmark.db.url=jdbc:postgresql://localhost:6545/main
+ */
+@Tag("benchmark")
+class GeoSearchBenchmarkTest {
+
+    private static final int LOCATIONS = 1_000_000;
+    private static final int WARMUP = 2;
+    private static final int ITERATIONS = 5;
+    private static final double[][] CIRCLES = {
+            {55.7558, 37.6173, 1}, {55.7558, 37.6173, 5}, {55.7558, 37.6173, 25},
+            {59.9343, 30.3351, 10}, {43.1155, 131.8855, 50}, {62.0, 100.0, 100}
+    };
+    private static final String DISTANCE = EventSearchFunctions.DISTANCE_KM_SQL
+            .replace("?1", "lat").replace("?2", "lon").replace("?3", "?").replace("?4", "?");
+
+    @Test
+    void nearSearch() throws SQLException {
+        String url = System.getProperty("benchmark.db.url");
+        assumeTrue(url != null, "benchmark.db.url is not set");
+        try (Connection connection = DriverManager.getConnection(url,
+                System.getProperty("benchmark.db.user", "main"), System.getProperty("benchmark.db.password", "main"));
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TEMP TABLE bench_locations AS
+                    SELECT g AS id, lat, lon,
+                           LEAST(FLOOR((CAST(lat AS DOUBLE PRECISION) + 90) * 10), 1799) * 3600
+                               + LEAST(FLOOR((CAST(lon AS DOUBLE PRECISION) + 180) * 10), 3599) AS cell
+                      FROM (SELECT g,
+                                   CAST(CASE WHEN g % 2 = 0
+                                        THEN (ARRAY[55.7558, 59.9343, 56.8389, 43.1155])[1 + g % 4]
+                                             + (random() - 0.5) * (random() * 2)
+                                        ELSE 41 + random() * 29 END AS REAL) AS lat,
+                                   CAST(CASE WHEN g % 2 = 0
+                                        THEN (ARRAY[37.6173, 30.3351, 60.6057, 131.8855])[1 + g % 4]
+                                             + (random() - 0.5) * (random() * 4)
+                                        ELSE 20 + random() * 160 END AS REAL) AS lon
+                              FROM generate_series(1, %d) g) points
+                    """.formatted(LOCATIONS));
+            statement.execute("CREATE INDEX ON bench_locations (cell)");
+            statement.execute("ANALYZE bench_locations");
+
+            System.out.printf("near search over %,d locations%n", LOCATIONS);
+            System.out.println("center               radius km   matches   candidates   scan ms   grid ms   speedup");
+            for (double[] circle : CIRCLES) {
+                String cells = GeoGrid.cover(circle[0], circle[1], circle[2]).stream()
+                        .map(range -> "cell BETWEEN " + range.from() + " AND " + range.to())
+                        .collect(Collectors.joining(" OR ", "(", ")"));
+                String scan = "SELECT count(*) FROM bench_locations WHERE " + DISTANCE + " <= ?";
+                String grid = scan + " AND " + cells;
+                double scanMs = measure(connection, scan, circle);
+                double gridMs = measure(connection, grid, circle);
+                System.out.printf("%8.4f,%9.4f %10.0f %9d %12d %9.1f %9.1f %9.1f%n", circle[0], circle[1], circle[2],
+                        count(connection, grid, circle), candidates(connection, cells), scanMs, gridMs,
+                        scanMs / gridMs);
+            }
+        }
+    }
+
+    private static double measure(Connection connection, String sql, double[] circle) throws SQLException {
+        for (int w = 0; w < WARMUP; w++) {
+            count(connection, sql, circle);
+        }
+        long start = System.nanoTime();
+        for (int n = 0; n < ITERATIONS; n++) {
+            count(connection, sql, circle);
+        }
+        return (System.nanoTime() - start) / 1e6 / ITERATIONS;
+    }
+
+    private static long count(Connection connection, String sql, double[] circle) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(sql)) {
+            query.setDouble(1, circle[0]);
+            query.setDouble(2, circle[0]);
+            query.setDouble(3, circle[1]);
+            query.setDouble(4, circle[2]);
+            return single(query);
+        }
+    }
+
+    private static long candidates(Connection connection, String cells) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT count(*) FROM bench_locations WHERE " + cells)) {
+            return single(query);
+        }
+    }
+
+    private static long single(PreparedStatement query) throws SQLException {
+        try (ResultSet result = query.executeQuery()) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ru.practicum.explore.event.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Parameter;
+import jakarta.persistence.TypedQuery;
+import ru.practicum.explore.event.model.Event;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Map.entry;
+
+/**
+ * 24 JPQL-запроса поиска событий, которые раньше были в {@link EventRepository}, дословно,
+ * и прежний выбор запроса по набору фильтров. Эталон для сравнения с {@link EventSearchRepository}.
+ * Единственное расхождение — onlyAvailable: прежнее «лимит задан» заменено проверкой свободных мест.
+ */
+final class LegacyEventQueries {
+
+    private static final String LIMITED = "e.participantLimit IS NOT NULL";
+    private static final String AVAILABLE = "(e.participantLimit = 0 OR e.confirmedRequests < e.participantLimit)";
+
+    private static final Map<String, String> JPQL = Map.ofEntries(
+            entry("findPaidWithLimitStateTextAndCategory",
+                    "SELECT e FROM Event e WHERE e.paid = :paid AND e.eventDate >= :start"
+                    + " AND e.eventDate <= :end AND e.participantLimit IS NOT NULL AND e.state = :state"
+                    + " AND (LOWER(e.annotation) LIKE LOWER(CONCAT('%', :text1, '%'))"
+                    + " OR LOWER(e.description) LIKE LOWER(CONCAT('%', :text2, '%')))"
+                    + " AND e.category.id IN :catId"),
+            entry("findPaidStateTextAndCategory",
+                    "SELECT e FROM Event e WHERE e.paid = :paid AND e.eventDate >= :start"
+                    + " AND e.eventDate <= :end AND e.state = :state"
+                    + " AND (LOWER(e.annotation) LIKE LOWER(CONCAT('%', :text1, '%'))"
+                    + " OR LOWER(e.description) LIKE LOWER(CONCAT('%', :text2, '%')))"
+                    + " AND e.category.id IN :catId"),
+            entry("findPaidWithLimitStateText",
+                    "SELECT e FROM Event e WHERE e.paid = :paid AND e.eventDate >= :start"
+                    + " AND e.eventDate <= :end AND e.participantLimit IS NOT NULL AND e.state = :state"
+                    + " AND (LOWER(e.annotation) LIKE LOWER(CONCAT('%', :text1, '%'))"
+                    + " OR LOWER(e.description) LIKE LOWER(CONCAT('%', :text2, '%')))"),
+            entry("findPaidStateText",
+                    "SELECT e FROM Event e WHERE e.paid = :paid AND e.eventDate >= :start"
+                    + " AND e.eventDate <= :end AND e.state = :state"
+                    + " AND (LOWER(e.annotation) LIKE LOWER(CONCAT('%', :text1, '%'))"
+                    + " OR LOWER(e.description) LIKE LOWER(CONCAT('%', :text2, '%')))"),
+            entry("findPaidWithLimitStateCategory",
+                    "SELECT e FROM Event e WHERE e.paid = :paid AND e.eventDate >= :start"
+                    + " AND e.eventDate <= :end AND e.participantLimit IS NOT NULL AND e.state = :state"
+                    + " AND e.category.id IN :catId"),
+            entry("findPaidStateCategory",
+                    "SELECT e FROM Event e WHERE e.paid = :paid AND e.eventDate >= :start"
+                    + " AND e.eventDate <= :end AND e.state = :state AND e.category.id IN :catId"),
+            entry("findPaidWithLimitState",
+                    "SELECT e FROM Event e WHERE e.paid = :paid AND e.eventDate >= :start"
+                    + " AND e.eventDate <= :end AND e.participantLimit IS NOT NULL AND e.state = :state"),
+            entry("findPaidState",
+                    "SELECT e FROM Event e WHERE e.paid = :paid AND e.eventDate >= :start"
+                    + " AND e.eventDate <= :end AND e.state = :state"),
+            entry("findLimitStateTextAndCategory",
+                    "SELECT e FROM Event e WHERE e.eventDate >= :start AND e.eventDate <= :end"
+                    + " AND e.participantLimit IS NOT NULL AND e.state = :state"
+                    + " AND (LOWER(e.annotation) LIKE LOWER(CONCAT('%', :text1, '%'))"
+                    + " OR LOWER(e.description) LIKE LOWER(CONCAT('%', :text2, '%')))"
+                    + " AND e.category.id IN :catId"),
+            entry("findStateTextAndCategory",
+                    "SELECT e FROM Event e WHERE e.eventDate >= :start AND e.eventDate <= :end"
+                    + " AND e.state = :state"
+                    + " AND (LOWER(e.annotation) LIKE LOWER(CONCAT('%', :text1, '%'))"
+                    + " OR LOWER(e.description) LIKE LOWER(CONCAT('%', :text2, '%')))"
+                    + " AND e.category.id IN :catId"),
+            entry("findLimitStateText",
+                    "SELECT e FROM Event e WHERE e.eventDate >= :start AND e.eventDate <= :end"
+                    + " AND e.participantLimit IS NOT NULL AND e.state = :state"
+                    + " AND (LOWER(e.annotation) LIKE LOWER(CONCAT('%', :text1, '%'))"
+                    + " OR LOWER(e.description) LIKE LOWER(CONCAT('%', :text2, '%')))"),
+            entry("findStateText",
+                    "SELECT e FROM Event e WHERE e.eventDate >= :start AND e.eventDate <= :end"
+                    + " AND e.state = :state"
+                    + " AND (LOWER(e.annotation) LIKE LOWER(CONCAT('%', :text1, '%'))"
+                    + " OR LOWER(e.description) LIKE LOWER(CONCAT('%', :text2, '%')))"),
+            entry("findLimitStateCategory",
+                    "SELECT e FROM Event e WHERE e.eventDate >= :start AND e.eventDate <= :end"
+                    + " AND e.participantLimit IS NOT NULL AND e.state = :state AND e.category.id IN :catId"),
+            entry("findStateCategory",
+                    "SELECT e FROM Event e WHERE e.eventDate >= :start AND e.eventDate <= :end"
+                    + " AND e.state = :state AND e.category.id IN :catId"),
+            entry("findLimitState",
+                    "SELECT e FROM Event e WHERE e.eventDate >= :start AND e.eventDate <= :end"
+                    + " AND e.participantLimit IS NOT NULL AND e.state = :state"),
+            entry("findState",
+                    "SELECT e FROM Event e WHERE e.eventDate >= :start AND e.eventDate <= :end"
+                    + " AND e.state = :state"),
+            entry("findUsersStatesCategories",
+                    "SELECT e FROM Event e WHERE e.initiator.id IN :users AND e.state IN :states"
+                    + " AND e.category.id IN :categories AND e.eventDate >= :start AND e.eventDate <= :end"),
+            entry("findUsersStates",
+                    "SELECT e FROM Event e WHERE e.initiator.id IN :users AND e.state IN :states"
+                    + " AND e.eventDate >= :start AND e.eventDate <= :end"),
+            entry("findUsersCategories",
+                    "SELECT e FROM Event e WHERE e.initiator.id IN :users AND e.category.id IN :categories"
+                    + " AND e.eventDate >= :start AND e.eventDate <= :end"),
+            entry("findUsersEvents",
+                    "SELECT e FROM Event e WHERE e.initiator.id IN :users AND e.eventDate >= :start"
+                    + " AND e.eventDate <= :end"),
+            entry("findStatesCategories",
+                    "SELECT e FROM Event e WHERE e.state IN :states AND e.category.id IN :categories"
+                    + " AND e.eventDate >= :start AND e.eventDate <= :end"),
+            entry("findStates",
+                    "SELECT e FROM Event e WHERE e.state IN :states AND e.eventDate >= :start"
+                    + " AND e.eventDate <= :end"),
+            entry("findCategories",
+                    "SELECT e FROM Event e WHERE e.category.id IN :categories AND e.eventDate >= :start"
+                    + " AND e.eventDate <= :end"),
+            entry("findByDateRange",
+                    "SELECT e FROM Event e WHERE e.eventDate >= :start AND e.eventDate <= :end")
+    );
+
+    private LegacyEventQueries() {
+    }
+
+    static String publicQuery(boolean text, boolean categories, boolean onlyAvailable, boolean paid) {
+        return (paid ? "findPaid" : "find")
+                + (onlyAvailable ? (paid ? "WithLimit" : "Limit") : "")
+                + "State"
+                + (text ? "Text" : "")
+                + (categories ? (text ? "AndCategory" : "Category") : "");
+    }
+
+    static String adminQuery(boolean users, boolean states, boolean categories) {
+        if (users) {
+            if (states) {
+                return categories ? "findUsersStatesCategories" : "findUsersStates";
+            }
+            return categories ? "findUsersCategories" : "findUsersEvents";
+        }
+        if (states) {
+            return categories ? "findStatesCategories" : "findStates";
+        }
+        return categories ? "findCategories" : "findByDateRange";
+    }
+
+    /* выполняет запрос с ORDER BY e.id; параметры, которых в запросе нет, пропускаются */
+    static List<Event> run(EntityManager entityManager, String name, Map<String, Object> params,
+                           int offset, int limit) {
+        String jpql = JPQL.get(name).replace(LIMITED, AVAILABLE) + " ORDER BY e.id";
+        TypedQuery<Event> query = entityManager.createQuery(jpql, Event.class);
+        for (Parameter<?> parameter : query.getParameters()) {
+            query.setParameter(parameter.getName(), params.get(parameter.getName()));
+        }
+        return query.setFirstResult(offset).setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.explore.event.repository;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Поиск подстроки по миллиону событий на PostgreSQL: последовательное сканирование
+ * против триграммного GIN-индекса с тем же выражением, что в schema-postgresql.sql.
+ * Данные создаются во временной таблице и живут до конца соединения.
+ * Запуск: mvn -pl ewm-main-service -am test -Pbenchmark -Dbenchmark.db.url=jdbc:postgresql://localhost:6545/main
+ */
+@Tag("benchmark")
+class TrigramSearchBenchmarkTest {
+
+    private static final int EVENTS = 1_000_000;
+    private static final int WARMUP = 2;
+    private static final int ITERATIONS = 5;
+    private static final String[] QUERIES = {"джаз", "ыстав", "ндап", "a1b2", "зз"};
+    private static final String DOCUMENT = "LOWER(COALESCE(annotation, '') || ' ' || COALESCE(description, ''))";
+    private static final String COUNT_SQL = "SELECT count(*) FROM bench_events WHERE "
+            + DOCUMENT + " LIKE ('%' || LOWER(?) || '%')";
+
+    @Test
+    void substringSearch() throws SQLException {
+        String url = System.getProperty("benchmark.db.url");
+        assumeTrue(url != null, "benchmark.db.url is not set");
+        try (Connection connection = DriverManager.getConnection(url,
+                System.getProperty("benchmark.db.user", "main"), System.getProperty("benchmark.db.password", "main"));
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            statement.execute("""
+                    CREATE TEMP TABLE bench_events AS
+                    SELECT g AS id,
+                           'Событие ' || g || ' ' || (ARRAY['Джаз', 'рок', 'лекция', 'выставка',
+                               'квиз', 'стендап', 'опера', 'балет'])[1 + g % 8] || ' ' || md5(g::text) AS annotation,
+                           repeat(md5((g * 7)::text) || ' ', 5) || (ARRAY['концерт', 'мастер-класс',
+                               'экскурсия', 'фестиваль'])[1 + (g / 8) % 4] AS description
+                      FROM generate_series(1, %d) g
+                    """.formatted(EVENTS));
+            statement.execute("ANALYZE bench_events");
+            double[] sequential = measure(connection);
+
+            statement.execute("CREATE INDEX ON bench_events USING GIN (" + DOCUMENT + " gin_trgm_ops)");
+            statement.execute("ANALYZE bench_events");
+            double[] trigram = measure(connection);
+
+            System.out.printf("substring search over %,d events%n", EVENTS);
+            System.out.println("query      matches   seq scan ms   trigram ms   speedup");
+            for (int i = 0; i < QUERIES.length; i++) {
+                System.out.printf("%-8s %9d %13.1f %12.1f %9.1f%n", QUERIES[i], count(connection, QUERIES[i]),
+                        sequential[i], trigram[i], sequential[i] / trigram[i]);
+            }
+        }
+    }
+
+    private static double[] measure(Connection connection) throws SQLException {
+        double[] millis = new double[QUERIES.length];
+        for (int i = 0; i < QUERIES.length; i++) {
+            for (int w = 0; w < WARMUP; w++) {
+                count(connection, QUERIES[i]);
+            }
+            long start = System.nanoTime();
+            for (int n = 0; n < ITERATIONS; n++) {
+                count(connection, QUERIES[i]);
+            }
+            millis[i] = (System.nanoTime() - start) / 1e6 / ITERATIONS;
+        }
+        return millis;
+    }
+
+    private static long count(Connection connection, String text) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(COUNT_SQL)) {
+            query.setString(1, text);
+            try (ResultSet result = query.executeQuery()) {
+                result.next();
+                return result.getLong(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package ru.practicum.explore.event.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.explore.event.model.Event;
+import ru.practicum.explore.event.repository.EventFilter;
+import ru.practicum.explore.event.repository.EventRepository;
+import ru.practicum.explore.event.repository.EventSearchRepository;
+import ru.practicum.explore.global.dto.Statuses;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventSearchIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @Mock
+    private EventRepository eventRepository;
+
+    private EventSearchIndex index;
+
+    @BeforeEach
+    void init() {
+        index = new EventSearchIndex(eventRepository, new SimpleMeterRegistry(),
+                EventSearchRepository.TextMode.INDEX, 500);
+    }
+
+    @Test
+    @DisplayName("Текст ищется подстрокой annotation и description без учёта регистра, title не участвует")
+    void shouldMatchSubstringLikeDatabase() {
+        Event event = event(1, "Джаз-КОНЦЕРТ, 2030!");
+        event.setTitle("Афиша");
+        event.setDescription("в парке");
+        build(event);
+
+        assertEquals(List.of(1L), search("джаз"));
+        assertEquals(List.of(1L), search("з-кон"));
+        assertEquals(List.of(1L), search("2030! в парке"));
+        assertEquals(List.of(1L), search("дж"));
+        assertEquals(List.of(), search("джаз-концертом"));
+        assertEquals(List.of(), search("афиша"));
+    }
+
+    @Test
+    @DisplayName("Несколько слов ищутся одной подстрокой, результат — по дате от поздних к ранним")
+    void shouldMatchWholeQueryAsSubstring() {
+        build(event(1, "джаз в парке"), event(2, "джаз и блюз в парке"), event(3, "блюз в клубе"));
+
+        assertEquals(List.of(2L, 1L), search("в парке"));
+        assertEquals(List.of(1L), search("джаз в"));
+        assertEquals(List.of(), search("парке джаз"));
+    }
+
+    @Test
+    @DisplayName("По релевантности выше события, где совпадение ближе к началу текста")
+    void shouldRankByMatchPosition() {
+        build(event(1, "концерт: саксофон"), event(2, "саксофон соло"), event(3, "вечер: саксофон"),
+                event(4, "рояль"));
+
+        assertEquals(List.of(2L, 3L, 1L), index.search(filter("саксофон"), true, 0, 10));
+        assertEquals(List.of(3L), index.search(filter("саксофон"), true, 1, 1));
+    }
+
+    @Test
+    @DisplayName("Текст с символами шаблона LIKE индекс не ищет")
+    void shouldNotSupportLikePatterns() {
+        assertTrue(index.supports("джаз в парке"));
+        assertFalse(index.supports("100%"));
+        assertFalse(index.supports("a_b"));
+        assertFalse(index.supports("a\\b"));
+    }
+
+    @Test
+    @DisplayName("В режимах поиска в БД индекс не строится и поиск в него не идёт")
+    void shouldStayOffOutsideIndexMode() {
+        index = new EventSearchIndex(eventRepository, new SimpleMeterRegistry(),
+                EventSearchRepository.TextMode.SUBSTRING, 500);
+
+        index.rebuild();
+        index.update(event(1, "джаз"));
+
+        assertFalse(index.isReady());
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    @DisplayName("Изменение события попадает в индекс только после коммита")
+    void shouldApplyUpdateAfterCommit() {
+        build(event(1, "джаз"), event(2, "блюз"));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.update(event(1, "рок"));
+            Event unpublished = event(2, "блюз");
+            unpublished.setState(Statuses.CANCELED.name());
+            index.update(unpublished);
+
+            assertEquals(List.of(1L), search("джаз"));
+            assertEquals(List.of(2L), search("блюз"));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(), search("джаз"));
+        assertEquals(List.of(1L), search("рок"));
+        assertEquals(List.of(), search("блюз"));
+    }
+
+    @Test
+    @DisplayName("Строка, прочитанная перестроением до коммита изменения, не затирает новый документ")
+    void shouldKeepUpdateAppliedDuringRebuild() {
+        when(eventRepository.findIdsByStateAfter(eq(Statuses.PUBLISHED.name()), eq(0L), any()))
+                .thenReturn(List.of(1L));
+        when(eventRepository.findIdsByStateAfter(eq(Statuses.PUBLISHED.name()), eq(1L), any()))
+                .thenReturn(List.of());
+        when(eventRepository.findAllByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Event stale = event(1, "джаз");
+            index.update(event(1, "рок"));
+            return List.of(stale);
+        });
+
+        index.rebuild();
+
+        assertEquals(List.of(), search("джаз"));
+        assertEquals(List.of(1L), search("рок"));
+    }
+
+    private void build(Event... events) {
+        long lastId = events[events.length - 1].getId();
+        when(eventRepository.findIdsByStateAfter(eq(Statuses.PUBLISHED.name()), eq(0L), any()))
+                .thenReturn(Arrays.stream(events).map(Event::getId).toList());
+        when(eventRepository.findIdsByStateAfter(eq(Statuses.PUBLISHED.name()), eq(lastId), any()))
+                .thenReturn(List.of());
+        when(eventRepository.findAllByIdIn(anyCollection())).thenReturn(List.of(events));
+        index.rebuild();
+    }
+
+    private List<Long> search(String text) {
+        return index.search(filter(text), false, 0, 10);
+    }
+
+    private static EventFilter filter(String text) {
+        return EventFilter.builder()
+                .text(text)
+                .rangeStart(BASE.minusYears(1))
+                .rangeEnd(BASE.plusYears(1))
+                .build();
+    }
+
+    /* события с большим id начинаются позже */
+    private static Event event(long id, String annotation) {
+        Event event = new Event();
+        event.setId(id);
+        event.setAnnotation(annotation);
+        event.setEventDate(BASE.plusDays(id));
+        event.setState(Statuses.PUBLISHED.name());
+        event.setPaid(false);
+        event.setParticipantLimit(0);
+        return event;
+    }
+}
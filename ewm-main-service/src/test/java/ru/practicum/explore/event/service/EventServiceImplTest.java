@@ -0,0 +1,226 @@
+package ru.practicum.explore.event.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import ru.practicum.explore.category.model.Category;
+import ru.practicum.explore.category.repository.CategoryRepository;
+import ru.practicum.explore.common.exception.BadRequestException;
+import ru.practicum.explore.client.StatsClient;
+import ru.practicum.explore.dto.StatDto;
+import ru.practicum.explore.event.dto.EventPage;
+import ru.practicum.explore.event.dto.ResponseEventDto;
+import ru.practicum.explore.event.model.Event;
+import ru.practicum.explore.event.model.Location;
+import ru.practicum.explore.event.repository.EventCursor;
+import ru.practicum.explore.event.repository.EventRepository;
+import ru.practicum.explore.event.repository.EventSearchRepository;
+import ru.practicum.explore.event.repository.LocationRepository;
+import ru.practicum.explore.event.repository.ParticipationRequestRepository;
+import ru.practicum.explore.global.dto.Statuses;
+import ru.practicum.explore.stats.service.ViewStatsService;
+import ru.practicum.explore.user.model.User;
+import ru.practicum.explore.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private EventRepository eventRepository;
+    @Mock
+    private EventSearchRepository eventSearchRepository;
+    @Mock
+    private EventSearchIndex eventSearchIndex;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private LocationRepository locationRepository;
+    @Mock
+    private ParticipationRequestRepository participationRequestRepository;
+    @Mock
+    private StatsClient statsClient;
+    @Mock
+    private UniqueViewerTracker uniqueViewerTracker;
+    @Mock
+    private PendingViewCounter pendingViewCounter;
+    @Mock
+    private EventViewsReconciler eventViewsReconciler;
+    @Mock
+    private SharedViewerStore sharedViewerStore;
+
+    private EventSearchCache eventSearchCache;
+    private EventServiceImpl eventService;
+
+    @BeforeEach
+    void init() {
+        ViewStatsService viewStatsService =
+                new ViewStatsService(statsClient, 5000, 3000, 10000, 2000);
+        eventSearchCache = new EventSearchCache(new SimpleMeterRegistry(), true, 30000, 1000);
+        eventService = new EventServiceImpl(userRepository, eventRepository, eventSearchRepository,
+                eventSearchIndex, eventSearchCache, categoryRepository, locationRepository,
+                participationRequestRepository, viewStatsService, uniqueViewerTracker, pendingViewCounter,
+                eventViewsReconciler, sharedViewerStore, new SimpleMeterRegistry());
+        when(eventViewsReconciler.isEnabled()).thenReturn(false);
+    }
+
+    @Test
+    @DisplayName("Один запрос к сервису статистики на страницу поиска, независимо от её размера")
+    void shouldRequestStatsOncePerPage() {
+        for (int size : new int[]{1, 10, 100}) {
+            clearInvocations(statsClient);
+            List<Event> page = events(size * 1000L, size);
+            when(eventSearchRepository.search(any(), any())).thenReturn(page);
+            when(statsClient.requireStats(anyString(), anyString(), anyList(), eq(true)))
+                    .thenReturn(List.of(new StatDto("ewm-main-service", "/events/" + page.getFirst().getId(), 7L)));
+
+            Collection<ResponseEventDto> result = findEvents(null, "VIEWS", size);
+
+            assertEquals(size, result.size());
+            assertEquals(7L, result.iterator().next().getViews());
+            verify(statsClient, times(1)).requireStats(anyString(), anyString(), anyList(), eq(true));
+        }
+    }
+
+    @Test
+    @DisplayName("Повторный запрос той же страницы обслуживается из кэша")
+    void shouldServeRepeatedPageFromCache() {
+        List<Event> page = events(1, 50);
+        when(eventSearchRepository.search(any(), any())).thenReturn(page);
+        when(eventRepository.findAllByIdIn(anyCollection())).thenReturn(page);
+        when(statsClient.requireStats(anyString(), anyString(), anyList(), eq(true))).thenReturn(List.of());
+
+        findEvents(null, null, 50);
+        Collection<ResponseEventDto> cached = findEvents(null, null, 50);
+
+        assertEquals(50, cached.size());
+        verify(eventSearchRepository, times(1)).search(any(), any());
+        verify(statsClient, times(1)).requireStats(anyString(), anyString(), anyList(), eq(true));
+    }
+
+    @Test
+    @DisplayName("Из кэша берутся только id: просмотры и заявки не отстают от БД, просмотры не идут назад")
+    void shouldServeFreshCountersFromCachedPage() {
+        when(eventViewsReconciler.isEnabled()).thenReturn(true);
+        List<Event> page = events(1, 1);
+        when(eventSearchRepository.search(any(), any())).thenReturn(page);
+        when(pendingViewCounter.withPending(eq(1L), any())).thenReturn(3L);
+
+        assertEquals(3L, findEvents(null, null, 10).getFirst().getViews());
+
+        /* дельта записана в events.views, заявка подтверждена */
+        Event flushed = events(1, 1).getFirst();
+        flushed.setViews(3L);
+        flushed.setConfirmedRequests(2L);
+        when(eventRepository.findAllByIdIn(List.of(1L))).thenReturn(List.of(flushed));
+        when(pendingViewCounter.withPending(1L, 3L)).thenReturn(3L);
+
+        ResponseEventDto cached = findEvents(null, null, 10).getFirst();
+        assertEquals(3L, cached.getViews());
+        assertEquals(2L, cached.getConfirmedRequests());
+        verify(eventSearchRepository, times(1)).search(any(), any());
+    }
+
+    @Test
+    @DisplayName("Страница поиска кэшируется по нормализованному запросу до изменения события в ней")
+    void shouldReloadPageAfterEventChange() {
+        List<Event> page = events(1, 10);
+        when(eventSearchRepository.search(any(), any())).thenReturn(page);
+        when(eventRepository.findAllByIdIn(anyCollection())).thenReturn(page);
+        when(statsClient.requireStats(anyString(), anyString(), anyList(), eq(true))).thenReturn(List.of());
+
+        findEvents("  Аннотация ", null, 10);
+        findEvents("аннотация", null, 10);
+        verify(eventSearchRepository, times(1)).search(any(), any());
+
+        page.get(4).setTitle("Перенесено");
+        eventSearchCache.invalidate(page.get(4));
+        findEvents("аннотация", null, 10);
+        verify(eventSearchRepository, times(2)).search(any(), any());
+    }
+
+    @Test
+    @DisplayName("Курсор полной страницы ведёт на следующую, последняя страница курсора не выдаёт")
+    void shouldIssueCursorUntilLastPage() {
+        List<Event> page = events(1, 10);
+        when(eventSearchRepository.search(any(), any())).thenReturn(page, events(11, 3));
+        when(statsClient.requireStats(anyString(), anyString(), anyList(), eq(true))).thenReturn(List.of());
+
+        EventPage<?> first = eventService.findEvents(null, null, null, null, null, null, "EVENT_DATE",
+                0, 10, null, null, null, null, "FULL", new MockHttpServletRequest());
+        assertEquals(page.getLast().getId(),
+                EventCursor.decode(first.nextCursor(), EventCursor.Key.EVENT_DATE).id());
+
+        EventPage<?> last = eventService.findEvents(null, null, null, null, null, null, "EVENT_DATE",
+                0, 10, null, null, null, first.nextCursor(), "FULL", new MockHttpServletRequest());
+        assertEquals(3, last.events().size());
+        assertNull(last.nextCursor());
+
+        assertThrows(BadRequestException.class, () -> eventService.findEvents(null, null, null, null, null, null,
+                "VIEWS", 0, 10, null, null, null, first.nextCursor(), "FULL", new MockHttpServletRequest()));
+    }
+
+    @Test
+    @DisplayName("view разбирается без учёта регистра, неизвестное значение — ошибка запроса")
+    void shouldParseViewIgnoringCase() {
+        when(eventSearchRepository.searchSummaries(any(), any())).thenReturn(List.of());
+
+        EventPage<?> page = eventService.findEvents(null, null, null, null, null, null, "EVENT_DATE",
+                0, 10, null, null, null, null, " Summary ", new MockHttpServletRequest());
+
+        assertEquals(List.of(), page.events());
+        verify(eventSearchRepository).searchSummaries(any(), any());
+        verify(eventSearchRepository, never()).search(any(), any());
+        assertThrows(BadRequestException.class, () -> eventService.findEvents(null, null, null, null, null, null,
+                "EVENT_DATE", 0, 10, null, null, null, null, "compact", new MockHttpServletRequest()));
+    }
+
+    /* полное представление первой страницы публичного поиска */
+    @SuppressWarnings("unchecked")
+    private List<ResponseEventDto> findEvents(String text, String sort, int size) {
+        return (List<ResponseEventDto>) eventService.findEvents(text, null, null, null, null, null, sort, 0, size,
+                null, null, null, null, "FULL", new MockHttpServletRequest()).events();
+    }
+
+    private static List<Event> events(long firstId, int count) {
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Концерты");
+        User initiator = new User();
+        initiator.setId(1L);
+        initiator.setName("Организатор");
+        List<Event> events = new ArrayList<>();
+        LongStream.range(firstId, firstId + count).forEach(id -> {
+            Event event = new Event();
+            event.setId(id);
+            event.setTitle("Событие " + id);
+            event.setAnnotation("Аннотация события " + id);
+            event.setCategory(category);
+            event.setInitiator(initiator);
+            event.setLocation(new Location());
+            event.setEventDate(LocalDateTime.now().plusDays(id % 30 + 1));
+            event.setState(Statuses.PUBLISHED.name());
+            event.setViews(0L);
+            events.add(event);
+        });
+        return events;
+    }
+}
@@ -0,0 +1,135 @@
+package ru.practicum.explore.event.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import ru.practicum.explore.client.StatsUnavailableException;
+import ru.practicum.explore.event.repository.EventRepository;
+import ru.practicum.explore.global.dto.Statuses;
+import ru.practicum.explore.stats.service.ViewStatsService;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventViewsReconcilerTest {
+
+    @Mock
+    private EventRepository eventRepository;
+    @Mock
+    private ViewStatsService viewStatsService;
+    @Mock
+    private PendingViewCounter pendingViewCounter;
+
+    @BeforeEach
+    void init() {
+        when(eventRepository.findIdsByStateAfter(eq(Statuses.PUBLISHED.name()), eq(0L), any()))
+                .thenReturn(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    @DisplayName("Полный проход исправляет только расхождение, подтверждённое дважды, и не трогает события без хитов")
+    void shouldCorrectConfirmedDriftOnFullRun() {
+        EventViewsReconciler reconciler = reconciler(1);
+        when(viewStatsService.countHits(anyCollection(), any(), any(), eq(true)))
+                .thenReturn(Map.of("/events/1", 10L, "/events/2", 4L));
+        when(eventRepository.findViewsByIdIn(anyCollection())).thenReturn(rows(7L, 4L, 5L));
+        storedViewsWithoutPending();
+
+        reconciler.reconcile();
+        verify(pendingViewCounter, never()).add(anyLong(), anyLong());
+
+        reconciler.reconcile();
+        verify(pendingViewCounter).add(1L, 3L);
+        verify(pendingViewCounter, never()).add(eq(2L), anyLong());
+        verify(pendingViewCounter, never()).add(eq(3L), anyLong());
+    }
+
+    @Test
+    @DisplayName("Проход по дельте проверяет только открытые с прошлого прохода события и события с расхождением")
+    @SuppressWarnings("unchecked")
+    void shouldCheckViewedAndDriftingEventsOnDeltaRun() {
+        EventViewsReconciler reconciler = reconciler(100);
+        when(pendingViewCounter.takeViewed()).thenReturn(Set.of(), Set.of(2L));
+        when(viewStatsService.countHits(anyCollection(), any(), any(), eq(true)))
+                .thenReturn(Map.of("/events/1", 10L, "/events/2", 4L), Map.of("/events/1", 10L, "/events/2", 5L));
+        when(eventRepository.findViewsByIdIn(anyCollection())).thenReturn(rows(7L, 4L, 0L), rows(7L, 5L));
+        storedViewsWithoutPending();
+
+        reconciler.reconcile();
+        reconciler.reconcile();
+
+        ArgumentCaptor<Collection<String>> uris = ArgumentCaptor.forClass(Collection.class);
+        verify(viewStatsService, times(2)).countHits(uris.capture(), any(), any(), eq(true));
+        assertEquals(List.of("/events/1", "/events/2", "/events/3"), List.copyOf(uris.getAllValues().get(0)));
+        assertEquals(List.of("/events/1", "/events/2"), List.copyOf(uris.getAllValues().get(1)));
+        /* опубликованные события перебирает только полный проход */
+        verify(eventRepository, times(1)).findIdsByStateAfter(any(), anyLong(), any());
+        verify(pendingViewCounter).add(1L, 3L);
+        verifyNoMoreInteractions(ignoreStubs(pendingViewCounter));
+    }
+
+    @Test
+    @DisplayName("Сбой сервиса статистики ничего не пишет и возвращает отметки о просмотрах")
+    void shouldKeepViewedMarksOnOutage() {
+        EventViewsReconciler reconciler = reconciler(100);
+        when(pendingViewCounter.takeViewed()).thenReturn(Set.of(1L), Set.of());
+        when(viewStatsService.countHits(anyCollection(), any(), any(), eq(true)))
+                .thenThrow(new StatsUnavailableException(HttpStatus.SERVICE_UNAVAILABLE))
+                .thenReturn(Map.of("/events/1", 10L));
+        when(eventRepository.findViewsByIdIn(anyCollection())).thenReturn(rows(10L, 0L, 0L));
+        storedViewsWithoutPending();
+
+        reconciler.reconcile();
+        reconciler.reconcile();
+
+        /* после сбоя следующий проход снова полный */
+        verify(pendingViewCounter).markViewed(1L);
+        verify(eventRepository, times(2)).findIdsByStateAfter(eq(Statuses.PUBLISHED.name()), eq(0L), any());
+        verify(viewStatsService, times(2)).countHits(anyCollection(), any(), any(), eq(true));
+        verify(pendingViewCounter, never()).add(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Пустой ответ сервиса статистики не обнуляет просмотры")
+    void shouldIgnoreEmptyStats() {
+        EventViewsReconciler reconciler = reconciler(1);
+        when(viewStatsService.countHits(anyCollection(), any(), any(), eq(true))).thenReturn(Map.of());
+        when(eventRepository.findViewsByIdIn(anyCollection())).thenReturn(rows(7L, 4L, 5L));
+
+        reconciler.reconcile();
+        reconciler.reconcile();
+
+        verify(pendingViewCounter, never()).add(anyLong(), anyLong());
+    }
+
+    private EventViewsReconciler reconciler(int fullEvery) {
+        return new EventViewsReconciler(eventRepository, viewStatsService, pendingViewCounter,
+                new SimpleMeterRegistry(), true, 200, fullEvery);
+    }
+
+    private void storedViewsWithoutPending() {
+        when(pendingViewCounter.withPending(anyLong(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    /* строки {id, views} для событий 1, 2, 3... */
+    private static List<Object[]> rows(Long... views) {
+        Object[][] rows = new Object[views.length][];
+        for (int i = 0; i < views.length; i++) {
+            rows[i] = new Object[]{i + 1L, views[i]};
+        }
+        return List.of(rows);
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.explore.event.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PendingViewCounterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private PendingViewCounter counter;
+
+    @Test
+    @DisplayName("Записываемая дельта видна читателям до конца записи, новые просмотры уходят следующим сбросом")
+    void shouldKeepFlushingDeltaVisible() {
+        for (int i = 0; i < 5; i++) {
+            counter.increment(1);
+        }
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            assertEquals(15, counter.withPending(1, 10L));
+            counter.increment(1);
+            return new int[]{1};
+        });
+
+        counter.flush();
+
+        assertEquals(1, counter.pending(1));
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<Object[]> batch) ->
+                batch.size() == 1 && (Long) batch.getFirst()[0] == 5L && (Long) batch.getFirst()[1] == 1L));
+    }
+
+    @Test
+    @DisplayName("Отметка о просмотре отдаётся сверке один раз")
+    void shouldTakeViewedOnce() {
+        counter.markViewed(1);
+        counter.markViewed(2);
+        counter.markViewed(1);
+
+        assertEquals(Set.of(1L, 2L), counter.takeViewed());
+        assertEquals(Set.of(), counter.takeViewed());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Неудачная запись возвращает дельту в очередь")
+    void shouldRetryFailedFlush() {
+        counter.increment(1);
+        counter.increment(1);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"))
+                .thenReturn(new int[]{1});
+
+        counter.flush();
+        assertEquals(2, counter.pending(1));
+
+        counter.flush();
+        assertEquals(0, counter.pending(1));
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    @DisplayName("Опустевший счётчик удаляется, и следующий сброс ничего не пишет")
+    void shouldRetireIdleCounters() {
+        counter.increment(1);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+
+        counter.flush();
+        counter.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        assertEquals(0, counter.pending(1));
+    }
+
+    @Test
+    @DisplayName("Инкременты во время сбросов не теряются и не удваиваются")
+    void shouldNotLoseIncrementsDuringConcurrentFlushes() throws Exception {
+        AtomicLong written = new AtomicLong();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> batch = invocation.getArgument(1);
+            batch.forEach(args -> written.addAndGet((Long) args[0]));
+            return new int[batch.size()];
+        });
+
+        int threads = 8;
+        int perThread = 20_000;
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            Future<?> flusher = executor.submit(() -> {
+                while (running.get()) {
+                    counter.flush();
+                }
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        counter.increment(i % 3);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            running.set(false);
+            flusher.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        counter.flush();
+
+        assertEquals((long) threads * perThread, written.get());
+        assertEquals(0, counter.pending(0) + counter.pending(1) + counter.pending(2));
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.explore.event.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Зритель, записанный дважды — с этого или другого узла, — засчитывается один раз
+ * в обоих вариантах «вставить, если нет».
+ */
+@JdbcTest
+@ActiveProfiles("test")
+class SharedViewerStoreTest {
+
+    private static final long EVENT_ID = 1;
+    private static final String IP = "10.0.0.1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private PendingViewCounter pendingViewCounter;
+
+    @BeforeEach
+    void init() {
+        pendingViewCounter = mock(PendingViewCounter.class);
+        jdbcTemplate.update("INSERT INTO events (id, paid, request_moderation, state) VALUES (?, FALSE, FALSE, ?)",
+                EVENT_ID, "PUBLISHED");
+    }
+
+    @Test
+    @DisplayName("MERGE: повторная запись того же зрителя не засчитывается")
+    void shouldCountViewerOnceWithMerge() {
+        SharedViewerStore first = store(jdbcTemplate);
+        SharedViewerStore second = store(jdbcTemplate);
+
+        first.record(EVENT_ID, IP);
+        first.flush();
+        second.record(EVENT_ID, IP);
+        second.flush();
+
+        verify(pendingViewCounter, times(1)).increment(EVENT_ID);
+        assertEquals(1, viewers(jdbcTemplate));
+    }
+
+    @Test
+    @DisplayName("ON CONFLICT DO NOTHING: повторная запись того же зрителя не засчитывается")
+    void shouldCountViewerOnceWithOnConflict() {
+        /* H2 в режиме PostgreSQL понимает ON CONFLICT DO NOTHING; имя базы подменяется, чтобы выбрать его */
+        JdbcTemplate postgres = spy(new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:viewers;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "main", "main")));
+        postgres.execute("DROP TABLE IF EXISTS event_viewers");
+        postgres.execute("""
+                CREATE TABLE event_viewers (
+                    event_id BIGINT NOT NULL,
+                    ip_hash BIGINT NOT NULL,
+                    seen_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT now(),
+                    PRIMARY KEY (event_id, ip_hash)
+                )
+                """);
+        doReturn("PostgreSQL").when(postgres).execute(any(ConnectionCallback.class));
+
+        SharedViewerStore store = store(postgres);
+        store.record(EVENT_ID, IP);
+        store.flush();
+        store.record(EVENT_ID, IP);
+        store.record(EVENT_ID, "10.0.0.2");
+        store.flush();
+
+        verify(pendingViewCounter, times(2)).increment(EVENT_ID);
+        assertEquals(2, viewers(postgres));
+    }
+
+    @Test
+    @DisplayName("Зрители старше retention-ms удаляются, свежие остаются")
+    void shouldPurgeViewersAfterRetention() {
+        SharedViewerStore store = store(jdbcTemplate);
+        store.record(EVENT_ID, IP);
+        store.record(EVENT_ID, "10.0.0.2");
+        store.flush();
+        jdbcTemplate.update("""
+                UPDATE event_viewers SET seen_at = ? WHERE ip_hash = (SELECT MIN(ip_hash) FROM event_viewers)
+                """, LocalDateTime.now().minusDays(2));
+
+        store.purge();
+
+        assertEquals(1, viewers(jdbcTemplate));
+    }
+
+    private SharedViewerStore store(JdbcTemplate template) {
+        return new SharedViewerStore(template, pendingViewCounter, true, 100, 100, 86_400_000);
+    }
+
+    private static int viewers(JdbcTemplate template) {
+        return template.queryForObject("SELECT COUNT(*) FROM event_viewers", Integer.class);
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.explore.event.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UniqueViewerTrackerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Популярное событие не насыщает фильтр: новые зрители продолжают учитываться")
+    void shouldCountViewersBeyondExpectedPerEvent() {
+        UniqueViewerTracker tracker = tracker(100, 64L * 1024 * 1024);
+        int viewers = 50_000;
+        int counted = 0;
+        for (int i = 0; i < viewers; i++) {
+            if (tracker.markViewed(1, ip(i))) {
+                counted++;
+            }
+        }
+
+        assertTrue(counted > viewers * 0.98, "counted " + counted);
+        for (int i = 0; i < viewers; i++) {
+            assertFalse(tracker.markViewed(1, ip(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("Одновременные просмотры одних и тех же зрителей считаются по одному разу")
+    void shouldCountEachViewerOnceUnderConcurrency() throws Exception {
+        UniqueViewerTracker tracker = tracker(1000, 64L * 1024 * 1024);
+        int threads = 8;
+        int viewers = 5_000;
+        AtomicInteger counted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < viewers; i++) {
+                        if (tracker.markViewed(i % 10, ip(i))) {
+                            counted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(counted.get() <= viewers, "counted " + counted.get());
+        assertTrue(counted.get() > viewers * 0.99, "counted " + counted.get());
+    }
+
+    @Test
+    @DisplayName("Вытеснение держит память в пределах max-bytes, вытесненное событие считает зрителя заново")
+    void shouldEvictLeastRecentlyViewedEvents() {
+        UniqueViewerTracker tracker = tracker(1000, 16 * 1024);
+        assertTrue(tracker.markViewed(1, ip(1)));
+        for (long eventId = 2; eventId <= 100; eventId++) {
+            tracker.markViewed(eventId, ip(1));
+        }
+
+        double heapBytes = meterRegistry.get("ewm.views.viewers.heap.bytes").gauge().value();
+        assertTrue(heapBytes <= 16 * 1024, "heap bytes " + heapBytes);
+        assertTrue(tracker.markViewed(1, ip(1)));
+        assertFalse(tracker.markViewed(1, ip(1)));
+    }
+
+    private UniqueViewerTracker tracker(long expectedPerEvent, long maxBytes) {
+        return new UniqueViewerTracker(meterRegistry, 86_400_000, expectedPerEvent, 0.01, maxBytes);
+    }
+
+    private static String ip(int n) {
+        return "10." + (n >>> 16 & 0xff) + "." + (n >>> 8 & 0xff) + "." + (n & 0xff);
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.explore.global.tools;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("Добавленное значение всегда находится, повторное добавление ничего не меняет")
+    void shouldContainEveryAddedValue() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.put("value-" + i) || filter.mightContain("value-" + i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("value-" + i));
+            assertFalse(filter.put("value-" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("Доля ложных срабатываний при ожидаемом заполнении близка к заданной")
+    void shouldKeepFalsePositiveRateNearTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("value-" + i);
+        }
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue((double) falsePositives / probes < 0.02, "false positive rate " + falsePositives / (double) probes);
+    }
+
+    @Test
+    @DisplayName("Размер фильтра растёт с ожидаемым числом элементов")
+    void shouldSizeByExpectedInsertions() {
+        assertTrue(new BloomFilter(100_000, 0.01).sizeInBytes() > new BloomFilter(1_000, 0.01).sizeInBytes());
+        assertTrue(new BloomFilter(1_000, 0.001).sizeInBytes() > new BloomFilter(1_000, 0.01).sizeInBytes());
+    }
+}
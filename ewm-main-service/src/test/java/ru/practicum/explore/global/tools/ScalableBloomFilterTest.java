@@ -0,0 +1,59 @@
+package ru.practicum.explore.global.tools;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    @DisplayName("Фильтр растёт сверх начальной ёмкости, не насыщаясь")
+    void shouldGrowBeyondInitialCapacity() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+        int added = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.put("viewer-" + i)) {
+                added++;
+            }
+        }
+
+        assertTrue(added > 99_000, "added " + added);
+        assertTrue(filter.stageCount() > 5);
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain("viewer-" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("Общая доля ложных срабатываний не превышает заданную")
+    void shouldKeepFalsePositiveRateBounded() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+        for (int i = 0; i < 50_000; i++) {
+            filter.put("viewer-" + i);
+        }
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("stranger-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue((double) falsePositives / probes <= 0.015, "false positive rate " + falsePositives / (double) probes);
+    }
+
+    @Test
+    @DisplayName("Повторное значение не добавляется и не расширяет фильтр")
+    void shouldNotGrowOnRepeats() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(10, 0.01);
+        assertTrue(filter.put("viewer"));
+        long size = filter.sizeInBytes();
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(filter.put("viewer"));
+        }
+        assertEquals(size, filter.sizeInBytes());
+        assertEquals(1, filter.stageCount());
+    }
+}
@@ -0,0 +1,168 @@
+package ru.practicum.explore.stats.dispatch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.explore.client.StatsClient;
+import ru.practicum.explore.dto.EndHitDto;
+import ru.practicum.explore.stats.spool.HitSpool;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HitDispatcherTest {
+
+    @Mock
+    private StatsClient statsClient;
+    @Mock
+    private HitSpool hitSpool;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HitDispatcher dispatcher;
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        release.countDown();
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Хиты уходят пачкой через POST /hits")
+    void shouldSendHitsInBatches() {
+        dispatcher = dispatcher(OverflowPolicy.SPOOL, 100, 1);
+        when(statsClient.saveAll(anyList())).thenReturn(ResponseEntity.status(201).build());
+        dispatcher.start();
+
+        for (int i = 1; i <= 3; i++) {
+            dispatcher.dispatch(hit(i));
+        }
+
+        verify(statsClient, timeout(1000).atLeastOnce()).saveAll(anyList());
+        await(() -> counter("ewm.hits.sent") == 3);
+        verifyNoInteractions(hitSpool);
+    }
+
+    @Test
+    @DisplayName("При переполнении очереди с политикой DROP хит отбрасывается и учитывается в метрике")
+    void shouldDropOverflowingHit() {
+        dispatcher = dispatcher(OverflowPolicy.DROP, 1, 1);
+
+        dispatcher.dispatch(hit(1));
+        dispatcher.dispatch(hit(2));
+
+        assertEquals(1, counter("ewm.hits.dropped"));
+        verifyNoInteractions(hitSpool, statsClient);
+    }
+
+    @Test
+    @DisplayName("Переполнение с политикой SPOOL пишется в журнал фоновым потоком, а не потоком запроса")
+    void shouldSpoolOverflowWithoutBlockingCaller() throws InterruptedException {
+        dispatcher = dispatcher(OverflowPolicy.SPOOL, 1, 1);
+        when(statsClient.saveAll(anyList())).thenAnswer(invocation -> {
+            release.await();
+            return ResponseEntity.status(201).build();
+        });
+        Thread caller = Thread.currentThread();
+        CountDownLatch spooling = new CountDownLatch(1);
+        when(hitSpool.append(any(EndHitDto.class))).thenAnswer(invocation -> {
+            assertTrue(Thread.currentThread() != caller);
+            spooling.countDown();
+            release.await();
+            return true;
+        });
+        dispatcher.start();
+
+        dispatcher.dispatch(hit(1));
+        verify(statsClient, timeout(1000)).saveAll(anyList());
+        dispatcher.dispatch(hit(2));
+
+        long start = System.nanoTime();
+        dispatcher.dispatch(hit(3));
+        /* HitSpool.append synchronized: verify на моке ждал бы монитор, занятый писателем */
+        assertTrue(spooling.await(1, TimeUnit.SECONDS));
+        dispatcher.dispatch(hit(4));
+        dispatcher.dispatch(hit(5));
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 1000);
+
+        assertEquals(1, counter("ewm.hits.dropped"));
+        release.countDown();
+        await(() -> counter("ewm.hits.spooled") == 2);
+    }
+
+    @Test
+    @DisplayName("Пачка, которую сервер не принял из-за своей ошибки, уходит в журнал")
+    void shouldSpoolBatchOnServerError() {
+        dispatcher = dispatcher(OverflowPolicy.SPOOL, 100, 1);
+        when(statsClient.saveAll(anyList())).thenReturn(ResponseEntity.status(503).build());
+        when(hitSpool.append(any(EndHitDto.class))).thenReturn(true);
+        dispatcher.start();
+
+        dispatcher.dispatch(hit(1));
+
+        verify(hitSpool, timeout(1000)).append(any(EndHitDto.class));
+        await(() -> counter("ewm.hits.spooled") == 1);
+    }
+
+    @Test
+    @DisplayName("Отвергнутая пачка досылается по одному хиту, отбрасываются только отвергнутые хиты")
+    void shouldDropOnlyRejectedHitsOfRejectedBatch() {
+        dispatcher = dispatcher(OverflowPolicy.SPOOL, 100, 1);
+        when(statsClient.saveAll(anyList())).thenReturn(ResponseEntity.badRequest().build());
+        when(statsClient.save(any(EndHitDto.class))).thenAnswer(invocation ->
+                "/events/2".equals(invocation.<EndHitDto>getArgument(0).getUri())
+                        ? ResponseEntity.badRequest().build()
+                        : ResponseEntity.status(201).build());
+        for (int i = 1; i <= 3; i++) {
+            dispatcher.dispatch(hit(i));
+        }
+
+        dispatcher.start();
+
+        await(() -> counter("ewm.hits.sent") == 2);
+        assertEquals(1, counter("ewm.hits.dropped"));
+        verify(statsClient, times(1)).saveAll(anyList());
+        verifyNoInteractions(hitSpool);
+    }
+
+    private HitDispatcher dispatcher(OverflowPolicy overflowPolicy, int queueCapacity, int overflowCapacity) {
+        return new HitDispatcher(statsClient, hitSpool, meterRegistry, queueCapacity, 10, 1,
+                overflowPolicy, overflowCapacity);
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static EndHitDto hit(int n) {
+        return EndHitDto.builder()
+                .app("ewm-main-service")
+                .uri("/events/" + n)
+                .ip("10.0.0." + n)
+                .timestamp("2024-05-01 12:00:00")
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.explore.stats.dispatch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.explore.dto.EndHitDto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HitReducerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Без сокращения проходят все хиты")
+    void shouldAdmitEverythingWithoutReduction() {
+        HitReducer reducer = reducer(HitReductionMode.NONE, 60_000, 1.0);
+
+        assertTrue(reducer.admit(hit("10.0.0.1", "/events/1")));
+        assertTrue(reducer.admit(hit("10.0.0.1", "/events/1")));
+    }
+
+    @Test
+    @DisplayName("DEDUPE подавляет повтор пары (ip, uri) в окне и пропускает его после двух окон")
+    void shouldSuppressRepeatsWithinWindow() throws InterruptedException {
+        HitReducer reducer = reducer(HitReductionMode.DEDUPE, 100, 1.0);
+
+        assertTrue(reducer.admit(hit("10.0.0.1", "/events/1")));
+        assertFalse(reducer.admit(hit("10.0.0.1", "/events/1")));
+        assertTrue(reducer.admit(hit("10.0.0.1", "/events/2")));
+        assertTrue(reducer.admit(hit("10.0.0.2", "/events/1")));
+        assertEquals(1, meterRegistry.get("ewm.hits.suppressed").counter().count());
+
+        Thread.sleep(120);
+        assertFalse(reducer.admit(hit("10.0.0.1", "/events/1")));
+        Thread.sleep(120);
+        reducer.admit(hit("10.0.0.9", "/events/9"));
+        Thread.sleep(120);
+        assertTrue(reducer.admit(hit("10.0.0.1", "/events/1")));
+    }
+
+    @Test
+    @DisplayName("SAMPLE пропускает долю sample-rate посетителей целиком и проставляет долю в хит")
+    void shouldSampleVisitorsDeterministically() {
+        HitReducer reducer = reducer(HitReductionMode.SAMPLE, 60_000, 0.25);
+        int admitted = 0;
+        int visitors = 20_000;
+        for (int i = 0; i < visitors; i++) {
+            EndHitDto first = hit("10.0." + i / 256 + "." + i % 256, "/events/1");
+            boolean sampled = reducer.admit(first);
+            EndHitDto repeat = hit(first.getIp(), first.getUri());
+            assertEquals(sampled, reducer.admit(repeat));
+            if (sampled) {
+                admitted++;
+                assertEquals(0.25, first.getSampleRate());
+            } else {
+                assertNull(first.getSampleRate());
+            }
+        }
+        assertEquals(0.25, (double) admitted / visitors, 0.02);
+    }
+
+    @Test
+    @DisplayName("Доля выборки вне (0, 1] отвергается при создании")
+    void shouldRejectInvalidSampleRate() {
+        assertThrows(IllegalArgumentException.class, () -> reducer(HitReductionMode.SAMPLE, 60_000, 0));
+        assertThrows(IllegalArgumentException.class, () -> reducer(HitReductionMode.SAMPLE, 60_000, 1.5));
+    }
+
+    private HitReducer reducer(HitReductionMode mode, long windowMs, double sampleRate) {
+        return new HitReducer(meterRegistry, mode, windowMs, 10_000, 0.01, sampleRate);
+    }
+
+    private static EndHitDto hit(String ip, String uri) {
+        return EndHitDto.builder()
+                .app("ewm-main-service")
+                .uri(uri)
+                .ip(ip)
+                .timestamp("2024-05-01 12:00:00")
+                .build();
+    }
+}
@@ -0,0 +1,236 @@
+package ru.practicum.explore.stats.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import ru.practicum.explore.client.StatsClient;
+import ru.practicum.explore.client.StatsUnavailableException;
+import ru.practicum.explore.dto.StatDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ViewStatsServiceTest {
+
+    private static final String URI = "/events/1";
+    private static final String OTHER = "/events/2";
+
+    @Mock
+    private StatsClient statsClient;
+
+    private ViewStatsService viewStatsService;
+
+    @AfterEach
+    void shutdown() {
+        if (viewStatsService != null) {
+            viewStatsService.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Значение из кэша живёт ttl-ms, после этого загружается заново")
+    void shouldReloadAfterTtl() throws InterruptedException {
+        viewStatsService = service(100, 100);
+        when(statsClient.requireStats(anyString(), anyString(), anyList(), eq(false)))
+                .thenReturn(hits(5L), hits(8L));
+
+        assertEquals(5L, views(URI));
+        assertEquals(5L, views(URI));
+        verify(statsClient, times(1)).requireStats(anyString(), anyString(), anyList(), eq(false));
+
+        Thread.sleep(150);
+        assertEquals(8L, views(URI));
+        verify(statsClient, times(2)).requireStats(anyString(), anyString(), anyList(), eq(false));
+    }
+
+    @Test
+    @DisplayName("После refresh-ahead-ms значение отдаётся сразу и обновляется в фоне")
+    void shouldRefreshAheadInBackground() throws InterruptedException {
+        viewStatsService = service(10_000, 50);
+        when(statsClient.requireStats(anyString(), anyString(), anyList(), eq(false)))
+                .thenReturn(hits(5L), hits(8L));
+
+        assertEquals(5L, views(URI));
+        Thread.sleep(80);
+        assertEquals(5L, views(URI));
+
+        verify(statsClient, timeout(1000).times(2)).requireStats(anyString(), anyString(), anyList(), eq(false));
+        long deadline = System.currentTimeMillis() + 1000;
+        while (views(URI) != 8L && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(8L, views(URI));
+    }
+
+    @Test
+    @DisplayName("Сверх max-entries вытесняется запись, к которой дольше всех не обращались")
+    void shouldEvictLeastRecentlyUsed() {
+        viewStatsService = new ViewStatsService(statsClient, 5000, 3000, 2, 2000);
+        when(statsClient.requireStats(anyString(), anyString(), anyList(), eq(false)))
+                .thenAnswer(invocation -> List.<String>copyOf(invocation.getArgument(2)).stream()
+                        .map(uri -> new StatDto("ewm-main-service", uri, 1L))
+                        .toList());
+
+        viewStatsService.getViews(List.of(URI), false);
+        viewStatsService.getViews(List.of(OTHER), false);
+        viewStatsService.getViews(List.of(URI), false);
+        viewStatsService.getViews(List.of("/events/3"), false);
+        clearInvocations(statsClient);
+
+        viewStatsService.getViews(List.of(URI, OTHER), false);
+        verify(statsClient).requireStats(anyString(), anyString(), eq(List.of(OTHER)), eq(false));
+    }
+
+    @Test
+    @DisplayName("Ошибка сервера статистики не затирает известное значение нулём")
+    void shouldServeStaleViewsWhenStatsFail() throws InterruptedException {
+        viewStatsService = service(50, 50);
+        when(statsClient.requireStats(anyString(), anyString(), anyList(), eq(false)))
+                .thenReturn(hits(5L))
+                .thenThrow(new StatsUnavailableException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertEquals(5L, views(URI));
+        Thread.sleep(80);
+
+        assertEquals(5L, views(URI));
+    }
+
+    @Test
+    @DisplayName("Без известного значения ошибка сервера статистики пробрасывается")
+    void shouldThrowWhenStatsFailWithoutStaleValue() {
+        viewStatsService = service(5000, 3000);
+        when(statsClient.requireStats(anyString(), anyString(), anyList(), eq(false)))
+                .thenThrow(new StatsUnavailableException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThrows(StatsUnavailableException.class, () -> views(URI));
+    }
+
+    @Test
+    @DisplayName("Одновременные промахи по одному ключу дают один запрос к сервису статистики")
+    void shouldCoalesceConcurrentMisses() throws Exception {
+        viewStatsService = service(5000, 3000);
+        CountDownLatch requested = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(statsClient.requireStats(anyString(), anyString(), anyList(), eq(false))).thenAnswer(invocation -> {
+            requested.countDown();
+            release.await();
+            return hits(5L);
+        });
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch ready = new CountDownLatch(threads);
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    ready.countDown();
+                    return views(URI);
+                }));
+            }
+            assertTrue(ready.await(5, TimeUnit.SECONDS));
+            assertTrue(requested.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<Long> result : results) {
+                assertEquals(5L, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(statsClient, times(1)).requireStats(anyString(), anyString(), anyList(), eq(false));
+    }
+
+    @Test
+    @DisplayName("Страница ждёт uri, которые уже загружает другой поток, и запрашивает только остальные")
+    void shouldCoalesceBulkMisses() throws Exception {
+        viewStatsService = service(5000, 3000);
+        CountDownLatch requested = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(statsClient.requireStats(anyString(), anyString(), eq(List.of(URI)), eq(false)))
+                .thenAnswer(invocation -> {
+                    requested.countDown();
+                    release.await();
+                    return hits(5L);
+                });
+        when(statsClient.requireStats(anyString(), anyString(), eq(List.of(OTHER)), eq(false)))
+                .thenReturn(List.of(new StatDto("ewm-main-service", OTHER, 3L)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Long> single = executor.submit(() -> views(URI));
+            assertTrue(requested.await(5, TimeUnit.SECONDS));
+            Future<Map<String, Long>> page =
+                    executor.submit(() -> viewStatsService.getViews(List.of(URI, OTHER), false));
+            verify(statsClient, timeout(1000)).requireStats(anyString(), anyString(), eq(List.of(OTHER)), eq(false));
+
+            release.countDown();
+            assertEquals(5L, single.get(5, TimeUnit.SECONDS));
+            assertEquals(Map.of(URI, 5L, OTHER, 3L), page.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(statsClient, times(1)).requireStats(anyString(), anyString(), eq(List.of(URI)), eq(false));
+    }
+
+    @Test
+    @DisplayName("Ожидание чужого запроса ограничено coalesce-timeout-ms")
+    void shouldStopWaitingForHungRequest() throws Exception {
+        viewStatsService = service(5000, 3000, 100);
+        CountDownLatch requested = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(statsClient.requireStats(anyString(), anyString(), anyList(), eq(false))).thenAnswer(invocation -> {
+            requested.countDown();
+            release.await();
+            return hits(5L);
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Long> owner = executor.submit(() -> views(URI));
+            assertTrue(requested.await(5, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            assertThrows(IllegalStateException.class, () -> views(URI));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+
+            release.countDown();
+            assertEquals(5L, owner.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long views(String uri) {
+        return viewStatsService.getViews(List.of(uri), false).get(uri);
+    }
+
+    private ViewStatsService service(long ttlMs, long refreshAheadMs) {
+        return service(ttlMs, refreshAheadMs, 2000);
+    }
+
+    private ViewStatsService service(long ttlMs, long refreshAheadMs, long coalesceTimeoutMs) {
+        return new ViewStatsService(statsClient, ttlMs, refreshAheadMs, 10000, coalesceTimeoutMs);
+    }
+
+    private static List<StatDto> hits(long hits) {
+        return List.of(new StatDto("ewm-main-service", URI, hits));
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.explore.stats.spool;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.explore.client.StatsClient;
+import ru.practicum.explore.dto.EndHitDto;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HitSpoolReplayerTest {
+
+    @TempDir
+    private Path directory;
+    @Mock
+    private StatsClient statsClient;
+
+    private HitSpool spool;
+    private HitSpoolReplayer replayer;
+
+    @BeforeEach
+    void init() throws IOException {
+        spool = new HitSpool(directory.toString(), 4096, 4, FsyncPolicy.NEVER);
+        spool.recover();
+        replayer = new HitSpoolReplayer(spool, statsClient, 2, 5, 1000);
+        for (int i = 1; i <= 7; i++) {
+            spool.append(EndHitDto.builder()
+                    .app("ewm-main-service")
+                    .uri("/events/" + i)
+                    .ip("10.0.0." + i)
+                    .timestamp("2024-05-01 12:00:00")
+                    .build());
+        }
+    }
+
+    @Test
+    @DisplayName("Проход досылает не больше replay-rate хитов пачками replay-batch-size")
+    void shouldReplayWithinRateBudget() {
+        when(statsClient.saveAll(anyList())).thenReturn(ResponseEntity.status(201).build());
+
+        replayer.replay();
+        verify(statsClient, times(3)).saveAll(anyList());
+        assertEquals("/events/6", spool.peek(1).hits().getFirst().getUri());
+
+        replayer.replay();
+        assertTrue(spool.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Ответ 5xx и недоступный сервер оставляют хиты в журнале до следующего прохода")
+    void shouldKeepHitsWhenServerUnavailable() {
+        when(statsClient.saveAll(anyList()))
+                .thenReturn(ResponseEntity.status(503).build())
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        replayer.replay();
+        replayer.replay();
+
+        verify(statsClient, times(2)).saveAll(anyList());
+        assertFalse(spool.isEmpty());
+        assertEquals("/events/1", spool.peek(1).hits().getFirst().getUri());
+    }
+
+    @Test
+    @DisplayName("Отвергнутая пачка досылается по одному хиту, отбрасываются только отвергнутые хиты")
+    void shouldDropOnlyRejectedHitsOfRejectedBatch() {
+        when(statsClient.saveAll(anyList())).thenReturn(ResponseEntity.badRequest().build());
+        when(statsClient.save(any(EndHitDto.class))).thenAnswer(invocation -> {
+            EndHitDto hit = invocation.getArgument(0);
+            if (hit.getUri().equals("/events/2")) {
+                return ResponseEntity.badRequest().build();
+            }
+            if (hit.getUri().equals("/events/4")) {
+                return ResponseEntity.status(503).build();
+            }
+            return ResponseEntity.status(201).build();
+        });
+
+        replayer.replay();
+
+        verify(statsClient, times(2)).saveAll(anyList());
+        verify(statsClient, times(4)).save(any(EndHitDto.class));
+        assertEquals("/events/4", spool.peek(1).hits().getFirst().getUri());
+    }
+}
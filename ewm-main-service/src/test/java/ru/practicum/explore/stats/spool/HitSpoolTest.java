@@ -0,0 +1,139 @@
+package ru.practicum.explore.stats.spool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.explore.dto.EndHitDto;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HitSpoolTest {
+
+    private static final int WRITE_POS_OFFSET = 4;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Записанные хиты читаются по порядку и удаляются из журнала после подтверждения")
+    void shouldReadAppendedHitsInOrder() throws IOException {
+        HitSpool spool = spool(FsyncPolicy.ALWAYS, 64);
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(spool.append(hit(i)));
+        }
+
+        HitSpool.SpooledHits batch = spool.peek(10);
+        assertEquals(List.of("/events/1", "/events/2", "/events/3"), uris(batch));
+        assertEquals(0.5, batch.hits().get(1).getSampleRate());
+
+        spool.acknowledge(batch, 2);
+        assertEquals(List.of("/events/3"), uris(spool.peek(10)));
+        spool.acknowledge(spool.peek(10), 1);
+        assertTrue(spool.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Хиты переходят в новый сегмент, а переполненный журнал отбрасывает их")
+    void shouldRollSegmentsAndDropWhenFull() throws IOException {
+        HitSpool spool = new HitSpool(directory.toString(), 256, 2, FsyncPolicy.NEVER);
+        spool.recover();
+        int appended = 0;
+        while (spool.append(hit(appended + 1))) {
+            appended++;
+        }
+
+        assertTrue(appended > 2);
+        assertEquals(2, segmentFiles().size());
+        assertEquals(1, spool.droppedHits());
+    }
+
+    @Test
+    @DisplayName("После перезапуска журнал продолжается с неподтверждённого хита")
+    void shouldRecoverUnacknowledgedHits() throws IOException {
+        HitSpool spool = spool(FsyncPolicy.PERIODIC, 64);
+        for (int i = 1; i <= 3; i++) {
+            spool.append(hit(i));
+        }
+        spool.acknowledge(spool.peek(1), 1);
+        spool.flush();
+
+        HitSpool restarted = spool(FsyncPolicy.PERIODIC, 64);
+        assertEquals(List.of("/events/2", "/events/3"), uris(restarted.peek(10)));
+    }
+
+    @Test
+    @DisplayName("Оборванная последняя запись отбрасывается при восстановлении")
+    void shouldDiscardTornTail() throws IOException {
+        HitSpool spool = spool(FsyncPolicy.ALWAYS, 64);
+        for (int i = 1; i <= 3; i++) {
+            spool.append(hit(i));
+        }
+        List<Integer> ends = spool.peek(3).endPositions();
+        Path segment = segmentFiles().getFirst();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            /* позиция записи уже на диске, а страница с последней записью — ещё нет */
+            file.seek(ends.get(1) + Integer.BYTES);
+            file.write(new byte[ends.get(2) - ends.get(1) - Integer.BYTES]);
+        }
+
+        HitSpool restarted = spool(FsyncPolicy.ALWAYS, 64);
+        assertEquals(List.of("/events/1", "/events/2"), uris(restarted.peek(10)));
+
+        assertTrue(restarted.append(hit(4)));
+        assertEquals(List.of("/events/1", "/events/2", "/events/4"), uris(restarted.peek(10)));
+    }
+
+    @Test
+    @DisplayName("Позиция записи за концом записанных данных обрезается до последней целой записи")
+    void shouldTruncateWritePositionBeyondRecords() throws IOException {
+        HitSpool spool = spool(FsyncPolicy.ALWAYS, 64);
+        spool.append(hit(1));
+        int end = spool.peek(1).endPositions().getFirst();
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles().getFirst().toFile(), "rw")) {
+            file.seek(WRITE_POS_OFFSET);
+            file.writeInt(end + 64);
+        }
+
+        HitSpool restarted = spool(FsyncPolicy.ALWAYS, 64);
+        HitSpool.SpooledHits batch = restarted.peek(10);
+        assertEquals(List.of("/events/1"), uris(batch));
+        restarted.acknowledge(batch, 1);
+        assertTrue(restarted.isEmpty());
+        assertFalse(restarted.pendingBytes() > 0);
+    }
+
+    private HitSpool spool(FsyncPolicy fsyncPolicy, int maxSegments) throws IOException {
+        HitSpool spool = new HitSpool(directory.toString(), 4096, maxSegments, fsyncPolicy);
+        spool.recover();
+        return spool;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static List<String> uris(HitSpool.SpooledHits batch) {
+        return batch.hits().stream().map(EndHitDto::getUri).toList();
+    }
+
+    private static EndHitDto hit(int n) {
+        return EndHitDto.builder()
+                .app("ewm-main-service")
+                .uri("/events/" + n)
+                .ip("10.0.0." + n)
+                .timestamp("2024-05-01 12:00:0" + n % 10)
+                .sampleRate(n % 2 == 0 ? 0.5 : null)
+                .build();
+    }
+}
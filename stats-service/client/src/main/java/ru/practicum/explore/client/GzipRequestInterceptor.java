@@ -0,0 +1,47 @@
+package ru.practicum.explore.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сжимает тело запроса gzip, если оно не меньше порога, и выставляет Content-Encoding.
+ * Ответы распаковывает сам HttpClient: он отправляет Accept-Encoding и декодирует gzip/deflate.
+ */
+public class GzipRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    public static final String GZIP = "gzip";
+
+    private final int minRequestBytes;
+
+    public GzipRequestInterceptor(int minRequestBytes) {
+        this.minRequestBytes = minRequestBytes;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        if (minRequestBytes < 0 || body.length < minRequestBytes
+                || request.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            return execution.execute(request, body);
+        }
+        byte[] compressed = gzip(body);
+        request.getHeaders().set(HttpHeaders.CONTENT_ENCODING, GZIP);
+        request.getHeaders().setContentLength(compressed.length);
+        return execution.execute(request, compressed);
+    }
+
+    public static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(body);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.explore.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Замеряет каждый вызов сервиса статистики: таймер stats.client.requests с тегами
+ * operation (save, saveAll, getStats) и outcome (SUCCESS, CLIENT_ERROR, SERVER_ERROR, IO_ERROR).
+ */
+public class MetricsRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    public static final String METRIC = "stats.client.requests";
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricsRequestInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            outcome = outcomeOf(response.getStatusCode().value());
+            return response;
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                    .description("Calls from the main service to the stats server")
+                    .tag("operation", operationOf(request.getURI().getPath()))
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String operationOf(String path) {
+        if (path.endsWith("/hits")) {
+            return "saveAll";
+        }
+        if (path.endsWith("/hit")) {
+            return "save";
+        }
+        if (path.endsWith("/stats")) {
+            return "getStats";
+        }
+        return "other";
+    }
+
+    private static String outcomeOf(int status) {
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (status >= 400) {
+            return "CLIENT_ERROR";
+        }
+        return "SUCCESS";
+    }
+}
@@ -10,9 +10,15 @@ import java.util.Map;
 
 public class RestServiceClient {
     private final RestTemplate httpTemplate;
+    private final MediaType wireFormat;
 
     public RestServiceClient(RestTemplate restTemplate) {
+        this(restTemplate, MediaType.APPLICATION_JSON);
+    }
+
+    public RestServiceClient(RestTemplate restTemplate, MediaType wireFormat) {
         this.httpTemplate = restTemplate;
+        this.wireFormat = wireFormat;
     }
 
     protected ResponseEntity<Object> fetch(String endpoint, @Nullable Map<String, Object> queryParams) {
@@ -60,8 +66,8 @@ public class RestServiceClient {
 
     private HttpHeaders generateHeaders() {
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        headers.setContentType(wireFormat);
+        headers.setAccept(Collections.singletonList(wireFormat));
         return headers;
     }
 
@@ -2,10 +2,13 @@ package ru.practicum.explore.client;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.explore.dto.EndHitDto;
 import ru.practicum.explore.dto.StatDto;
@@ -18,20 +21,53 @@ public class StatsClient extends RestServiceClient {
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
+    /* тела запросов от 1 КБ сжимаются gzip; пачки хитов почти всегда больше */
+    public static final int DEFAULT_MIN_COMPRESSED_REQUEST_BYTES = 1024;
+
     public StatsClient(String serverUrl, RestTemplateBuilder builder) {
-        super(builder
+        this(serverUrl, builder, DEFAULT_MIN_COMPRESSED_REQUEST_BYTES);
+    }
+
+    public StatsClient(String serverUrl, RestTemplateBuilder builder, int minCompressedRequestBytes) {
+        this(serverUrl, builder, minCompressedRequestBytes, WireFormat.JSON);
+    }
+
+    public StatsClient(String serverUrl, RestTemplateBuilder builder,
+                       int minCompressedRequestBytes, WireFormat wireFormat) {
+        this(serverUrl, builder, minCompressedRequestBytes, wireFormat, null);
+    }
+
+    /* meterRegistry == null — вызовы не замеряются */
+    public StatsClient(String serverUrl, RestTemplateBuilder builder,
+                       int minCompressedRequestBytes, WireFormat wireFormat, MeterRegistry meterRegistry) {
+        super(configure(builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
                 .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(
                         HttpClients.createDefault()))
-                .build());
+                .build(), minCompressedRequestBytes, wireFormat, meterRegistry), wireFormat.getMediaType());
     }
 
     public ResponseEntity<Object> save(EndHitDto hit) {
         return submit("/hit", hit);
     }
 
+    public ResponseEntity<Object> saveAll(List<EndHitDto> hits) {
+        return submit("/hits", hits);
+    }
+
+    /* ответ не 2xx даёт пустой список — для вызывающих, которым статистика не обязательна */
     public List<StatDto> getStats(String start, String end,
                                   List<String> uris, boolean unique) {
+        try {
+            return requireStats(start, end, uris, unique);
+        } catch (StatsUnavailableException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    /* как getStats, но ответ не 2xx — исключение: пустой список значит «хитов нет», а не «сервер недоступен» */
+    public List<StatDto> requireStats(String start, String end,
+                                      List<String> uris, boolean unique) {
 
         Map<String, Object> params = Map.of(
                 "start", start,
@@ -43,9 +79,25 @@ public class StatsClient extends RestServiceClient {
         ResponseEntity<Object> resp = fetch(
                 "/stats?start={start}&end={end}&uris={uris}&unique={unique}", params);
 
-        if (resp.getStatusCode().is2xxSuccessful() && resp.getBody() != null) {
-            return MAPPER.convertValue(resp.getBody(), new TypeReference<>() {});
+        if (!resp.getStatusCode().is2xxSuccessful()) {
+            throw new StatsUnavailableException(resp.getStatusCode());
+        }
+        if (resp.getBody() == null) {
+            return Collections.emptyList();
+        }
+        return MAPPER.convertValue(resp.getBody(), new TypeReference<>() {});
+    }
+
+    private static RestTemplate configure(RestTemplate template, int minCompressedRequestBytes,
+                                          WireFormat wireFormat, MeterRegistry meterRegistry) {
+        if (meterRegistry != null) {
+            /* первым в цепочке, чтобы время включало сжатие тела */
+            template.getInterceptors().add(new MetricsRequestInterceptor(meterRegistry));
+        }
+        template.getInterceptors().add(new GzipRequestInterceptor(minCompressedRequestBytes));
+        if (wireFormat == WireFormat.SMILE) {
+            template.getMessageConverters().add(0, new MappingJackson2SmileHttpMessageConverter());
         }
-        return Collections.emptyList();
+        return template;
     }
 }
@@ -0,0 +1,20 @@
+package ru.practicum.explore.client;
+
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * Сервис статистики ответил не 2xx: у вызывающего нет данных, а не ноль просмотров.
+ */
+public class StatsUnavailableException extends RuntimeException {
+
+    private final HttpStatusCode status;
+
+    public StatsUnavailableException(HttpStatusCode status) {
+        super("Stats server responded with " + status);
+        this.status = status;
+    }
+
+    public HttpStatusCode getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.explore.client;
+
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+@Getter
+public enum WireFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    /* бинарный JSON: имена полей и повторяющиеся строки передаются ссылками */
+    SMILE(new MediaType("application", "x-jackson-smile"));
+
+    private final MediaType mediaType;
+
+    WireFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+}
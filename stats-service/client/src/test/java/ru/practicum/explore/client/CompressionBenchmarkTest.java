@@ -0,0 +1,100 @@
+package ru.practicum.explore.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.practicum.explore.dto.EndHitDto;
+import ru.practicum.explore.dto.StatDto;
+import ru.practicum.explore.tools.SimpleDateTimeFormatter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Размер на проводе и CPU на gzip для типичных пачек хитов и ответов /stats.
+ * Запуск: mvn -pl stats-service/client -am test -Pbenchmark
+ */
+@Tag("benchmark")
+class CompressionBenchmarkTest {
+
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1000;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ThreadMXBean CPU = ManagementFactory.getThreadMXBean();
+
+    @Test
+    void hitBatches() throws IOException {
+        System.out.println("POST /hits batch     raw B   gzip B  ratio  gzip us  gunzip us");
+        for (int size : new int[]{1, 10, 100, 1000}) {
+            report("hits x " + size, MAPPER.writeValueAsBytes(hits(size)));
+        }
+    }
+
+    @Test
+    void statsResponses() throws IOException {
+        System.out.println("GET /stats response  raw B   gzip B  ratio  gzip us  gunzip us");
+        for (int size : new int[]{1, 10, 100, 1000}) {
+            report("stats x " + size, MAPPER.writeValueAsBytes(stats(size)));
+        }
+    }
+
+    private static void report(String name, byte[] raw) throws IOException {
+        byte[] compressed = GzipRequestInterceptor.gzip(raw);
+        for (int i = 0; i < WARMUP; i++) {
+            GzipRequestInterceptor.gzip(raw);
+            gunzip(compressed);
+        }
+        long start = CPU.getCurrentThreadCpuTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            GzipRequestInterceptor.gzip(raw);
+        }
+        double gzipMicros = (CPU.getCurrentThreadCpuTime() - start) / 1000.0 / ITERATIONS;
+        start = CPU.getCurrentThreadCpuTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            gunzip(compressed);
+        }
+        double gunzipMicros = (CPU.getCurrentThreadCpuTime() - start) / 1000.0 / ITERATIONS;
+
+        System.out.printf("%-18s %7d %8d %6.2f %8.1f %10.1f%n", name, raw.length, compressed.length,
+                (double) compressed.length / raw.length, gzipMicros, gunzipMicros);
+        if (raw.length > StatsClient.DEFAULT_MIN_COMPRESSED_REQUEST_BYTES) {
+            assertTrue(compressed.length < raw.length);
+        }
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static List<EndHitDto> hits(int size) {
+        List<EndHitDto> hits = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            hits.add(EndHitDto.builder()
+                    .app("ewm-main-service")
+                    .uri("/events/" + (i % 50))
+                    .ip("10.0." + (i / 250) + "." + (i % 250))
+                    .timestamp(SimpleDateTimeFormatter.toString(now.minusSeconds(i)))
+                    .build());
+        }
+        return hits;
+    }
+
+    private static List<StatDto> stats(int size) {
+        List<StatDto> stats = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            stats.add(new StatDto("ewm-main-service", "/events/" + i, (long) (size - i) * 17));
+        }
+        return stats;
+    }
+}
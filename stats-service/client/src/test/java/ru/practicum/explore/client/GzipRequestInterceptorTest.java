@@ -0,0 +1,58 @@
+package ru.practicum.explore.client;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class GzipRequestInterceptorTest {
+
+    @Mock
+    private ClientHttpRequestExecution execution;
+
+    @Test
+    @DisplayName("Маленькое тело уходит без сжатия")
+    void shouldPassSmallBodyUnchanged() throws Exception {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, URI.create("/hit"));
+        byte[] body = "{\"app\":\"ewm\"}".getBytes(StandardCharsets.UTF_8);
+
+        new GzipRequestInterceptor(1024).intercept(request, body, execution);
+
+        verify(execution).execute(request, body);
+        assertNull(request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    @DisplayName("Большое тело сжимается gzip с заголовком Content-Encoding")
+    void shouldCompressBodyAboveThreshold() throws Exception {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, URI.create("/hits"));
+        byte[] body = "{\"app\":\"ewm-main-service\",\"uri\":\"/events/1\"},".repeat(100)
+                .getBytes(StandardCharsets.UTF_8);
+
+        new GzipRequestInterceptor(1024).intercept(request, body, execution);
+
+        ArgumentCaptor<byte[]> sent = ArgumentCaptor.forClass(byte[].class);
+        verify(execution).execute(any(), sent.capture());
+        assertEquals("gzip", request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(sent.getValue().length < body.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(sent.getValue()))) {
+            assertArrayEquals(body, in.readAllBytes());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.explore.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MetricsRequestInterceptorTest {
+
+    @Mock
+    private ClientHttpRequestExecution execution;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Успешный запрос статистики замеряется с операцией и исходом")
+    void shouldTimeSuccessfulCall() throws Exception {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET,
+                URI.create("http://stats-service:9090/stats?start=a&end=b"));
+        when(execution.execute(any(), any())).thenReturn(new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+
+        new MetricsRequestInterceptor(meterRegistry).intercept(request, new byte[0], execution);
+
+        Timer timer = meterRegistry.find(MetricsRequestInterceptor.METRIC)
+                .tags("operation", "getStats", "outcome", "SUCCESS")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    @DisplayName("Ошибка соединения замеряется как IO_ERROR и пробрасывается дальше")
+    void shouldTimeFailedCall() throws Exception {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST,
+                URI.create("http://stats-service:9090/hits"));
+        when(execution.execute(any(), any())).thenThrow(new IOException("Connection refused"));
+
+        assertThrows(IOException.class, () ->
+                new MetricsRequestInterceptor(meterRegistry).intercept(request, new byte[0], execution));
+
+        Timer timer = meterRegistry.find(MetricsRequestInterceptor.METRIC)
+                .tags("operation", "saveAll", "outcome", "IO_ERROR")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+}
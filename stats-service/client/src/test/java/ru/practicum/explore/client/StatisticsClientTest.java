@@ -163,6 +163,51 @@ class StatisticsClientTest {
         assertTrue(response.isEmpty());
     }
 
+    @Test
+    @DisplayName("Ошибка сервера при обязательном запросе статистики — исключение, а не пустой список")
+    void shouldThrowOnServerErrorWhenStatsRequired() {
+        HttpStatusCodeException error = mock(HttpStatusCodeException.class);
+        when(error.getStatusCode()).thenReturn(HttpStatus.INTERNAL_SERVER_ERROR);
+        when(error.getResponseBodyAsByteArray()).thenReturn(new byte[0]);
+        when(httpTemplate.exchange(
+                anyString(),
+                eq(HttpMethod.GET),
+                argThat(this::verifyHeaders),
+                eq(Object.class),
+                anyMap())
+        ).thenThrow(error);
+
+        StatsUnavailableException thrown = assertThrows(StatsUnavailableException.class, () ->
+                statisticsClient.requireStats("2024-05-01 12:00:00", "2024-05-02 12:00:00",
+                        List.of("/events/1"), false));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, thrown.getStatus());
+    }
+
+    @Test
+    @DisplayName("Сохранение хита в формате Smile")
+    void shouldSendSmileHeadersWhenConfigured() {
+        RestTemplateBuilder templateBuilder = mock(RestTemplateBuilder.class);
+        when(templateBuilder.build()).thenReturn(httpTemplate);
+        when(templateBuilder.uriTemplateHandler(any())).thenReturn(templateBuilder);
+        when(templateBuilder.requestFactory(any(Supplier.class))).thenReturn(templateBuilder);
+        StatsClient smileClient = new StatsClient("http://stats-service:8080", templateBuilder,
+                StatsClient.DEFAULT_MIN_COMPRESSED_REQUEST_BYTES, WireFormat.SMILE);
+
+        when(httpTemplate.exchange(
+                anyString(),
+                eq(HttpMethod.POST),
+                argThat((HttpEntity<?> entity) ->
+                        WireFormat.SMILE.getMediaType().equals(entity.getHeaders().getContentType()) &&
+                                entity.getHeaders().getAccept().contains(WireFormat.SMILE.getMediaType())),
+                eq(Object.class))
+        ).thenReturn(ResponseEntity.status(201).build());
+
+        ResponseEntity<Object> result = smileClient.save(new EndHitDto());
+
+        assertEquals(HttpStatus.CREATED, result.getStatusCode());
+    }
+
     private boolean verifyHeaders(HttpEntity<?> httpEntity) {
         HttpHeaders headers = httpEntity.getHeaders();
         return Objects.equals(headers.getContentType(), MediaType.APPLICATION_JSON) &&
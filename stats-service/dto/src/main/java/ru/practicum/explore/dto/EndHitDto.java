@@ -1,6 +1,10 @@
 package ru.practicum.explore.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
 import lombok.*;
 
 @Getter
@@ -10,9 +14,17 @@ import lombok.*;
 @AllArgsConstructor
 public class EndHitDto {
     private Long id;
+    @NotBlank
     private String app;
+    @NotBlank
     private String uri;
+    @NotBlank
     private String ip;
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private String timestamp;
+    /* доля выборки на стороне клиента, (0, 1]; null — хит не сэмплирован */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @DecimalMin(value = "0", inclusive = false)
+    @DecimalMax("1")
+    private Double sampleRate;
 }
@@ -0,0 +1,21 @@
+package ru.practicum.explore.server.config;
+
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Кроме JSON сервер принимает и отдаёт Smile (application/x-jackson-smile).
+ * Формат выбирается по Content-Type и Accept запроса, JSON остаётся форматом по умолчанию.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(SmileMapper.builder()
+                .findAndAddModules()
+                .build());
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.explore.server.controller;
 
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -36,9 +37,15 @@ public class StatisticsController {
     }
 
     @PostMapping("/hit")
-    public ResponseEntity<EndHitDto> hit(@RequestBody EndHitDto endpointHit) {
+    public ResponseEntity<EndHitDto> hit(@RequestBody @Valid EndHitDto endpointHit) {
         log.info("Получен запрос POST /hit");
         return new ResponseEntity<>(service.hit(endpointHit), HttpStatus.CREATED);
     }
 
+    @PostMapping("/hits")
+    public ResponseEntity<List<EndHitDto>> hits(@RequestBody List<@Valid EndHitDto> endpointHits) {
+        log.info("Получен запрос POST /hits, хитов: {}", endpointHits.size());
+        return new ResponseEntity<>(service.hitAll(endpointHits), HttpStatus.CREATED);
+    }
+
 }
\ No newline at end of file
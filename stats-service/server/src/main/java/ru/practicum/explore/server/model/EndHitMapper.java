@@ -15,16 +15,32 @@ public class EndHitMapper {
                 .app(endpointHitDto.getApp())
                 .uri(endpointHitDto.getUri())
                 .ip(endpointHitDto.getIp())
-                .timestamp(LocalDateTime.now())
+                .timestamp(endpointHitDto.getTimestamp() != null
+                        ? SimpleDateTimeFormatter.parse(endpointHitDto.getTimestamp())
+                        : LocalDateTime.now())
+                .weight(weightOf(endpointHitDto.getSampleRate()))
                 .build();
     }
 
+    public static double weightOf(Double sampleRate) {
+        if (sampleRate == null) {
+            return 1;
+        }
+        if (sampleRate <= 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("sampleRate должен быть в диапазоне (0, 1]");
+        }
+        return 1 / sampleRate;
+    }
+
     public static EndHitDto toEndpointHitDto(EndpointHit endpointHit) {
         return EndHitDto.builder()
                 .app(endpointHit.getApp())
                 .uri(endpointHit.getUri())
                 .ip(endpointHit.getIp())
                 .timestamp(SimpleDateTimeFormatter.toString(endpointHit.getTimestamp()))
+                .sampleRate(endpointHit.getWeight() == null || endpointHit.getWeight() == 1.0
+                        ? null
+                        : 1.0 / endpointHit.getWeight())
                 .build();
     }
 }
\ No newline at end of file
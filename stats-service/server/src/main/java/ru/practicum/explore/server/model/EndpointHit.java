@@ -28,4 +28,9 @@ public class EndpointHit {
 
     @Column(name = "timestamp", nullable = false)
     private LocalDateTime timestamp;
+
+    /* сколько реальных хитов представляет эта запись: 1 / sampleRate клиента, не обязательно целое */
+    @Column(name = "weight", nullable = false)
+    @Builder.Default
+    private Double weight = 1.0;
 }
\ No newline at end of file
@@ -10,31 +10,35 @@ import ru.practicum.explore.server.model.Stats;
 import java.time.LocalDateTime;
 import java.util.List;
 
+/* хиты считаются с весом: клиент может отправлять только выборку и указывать её долю */
 @Repository
 public interface EndpointHitsRepository extends JpaRepository<EndpointHit, Long> {
 
     @Query("""
-           SELECT new ru.practicum.explore.server.model.Stats(h.app, h.uri, COUNT(h.ip))
+           SELECT new ru.practicum.explore.server.model.Stats(h.app, h.uri, CAST(ROUND(SUM(h.weight), 0) AS Long))
              FROM EndpointHit h
             WHERE h.timestamp BETWEEN :start AND :end
               AND (:uris IS NULL OR h.uri IN :uris)
             GROUP BY h.app, h.uri
-            ORDER BY COUNT(h.ip) DESC
+            ORDER BY SUM(h.weight) DESC
            """)
     List<Stats> findStats(@Param("start") LocalDateTime start,
                           @Param("end")   LocalDateTime end,
                           @Param("uris")  List<String> uris);
 
 
+    /* каждый IP входит в выборку целиком, поэтому уникальный IP весит столько же, сколько любой его хит */
     @Query("""
-           SELECT new ru.practicum.explore.server.model.Stats(h.app, h.uri, COUNT(DISTINCT h.ip))
-             FROM EndpointHit h
-            WHERE h.timestamp BETWEEN :start AND :end
-              AND (:uris IS NULL OR h.uri IN :uris)
-            GROUP BY h.app, h.uri
-            ORDER BY COUNT(DISTINCT h.ip) DESC
+           SELECT new ru.practicum.explore.server.model.Stats(v.app, v.uri, CAST(ROUND(SUM(v.weight), 0) AS Long))
+             FROM (SELECT h.app AS app, h.uri AS uri, h.ip AS ip, MAX(h.weight) AS weight
+                     FROM EndpointHit h
+                    WHERE h.timestamp BETWEEN :start AND :end
+                      AND (:uris IS NULL OR h.uri IN :uris)
+                    GROUP BY h.app, h.uri, h.ip) v
+            GROUP BY v.app, v.uri
+            ORDER BY SUM(v.weight) DESC
            """)
     List<Stats> findUniqueStats(@Param("start") LocalDateTime start,
                                 @Param("end")   LocalDateTime end,
                                 @Param("uris")  List<String> uris);
-}
\ No newline at end of file
+}
@@ -1,5 +1,8 @@
 package ru.practicum.explore.server.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import ru.practicum.explore.dto.EndHitDto;
@@ -15,27 +18,53 @@ import java.util.List;
 @RequiredArgsConstructor
 public class StatisticsServiceImpl implements StatsService {
     private final EndpointHitsRepository endpointHitsRepository;
+    private final MeterRegistry meterRegistry;
 
     public EndHitDto hit(EndHitDto endpointHit) {
-        return EndHitMapper.toEndpointHitDto(
+        EndHitDto saved = EndHitMapper.toEndpointHitDto(
                 endpointHitsRepository.save(EndHitMapper.toEndpointHit(endpointHit))
         );
+        ingested("hit").increment();
+        return saved;
+    }
+
+    public List<EndHitDto> hitAll(List<EndHitDto> endpointHits) {
+        List<EndHitDto> saved = endpointHitsRepository.saveAll(endpointHits.stream()
+                        .map(EndHitMapper::toEndpointHit)
+                        .toList())
+                .stream()
+                .map(EndHitMapper::toEndpointHitDto)
+                .toList();
+        ingested("hits").increment(saved.size());
+        return saved;
     }
 
     public List<StatDto> get(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
         if (start.isAfter(end)) {
             throw new IllegalArgumentException("Дата начала не может быть позже даты окончания");
         }
-        if (Boolean.TRUE.equals(unique)) {
-            return endpointHitsRepository.findUniqueStats(start, end, uris)
-                    .stream()
-                    .map(StatsMapper::toStatsDto)
-                    .toList();
-        } else {
-            return endpointHitsRepository.findStats(start, end, uris)
-                    .stream()
-                    .map(StatsMapper::toStatsDto)
-                    .toList();
-        }
+        boolean isUnique = Boolean.TRUE.equals(unique);
+        return queryTimer(isUnique).record(() -> (isUnique
+                ? endpointHitsRepository.findUniqueStats(start, end, uris)
+                : endpointHitsRepository.findStats(start, end, uris))
+                .stream()
+                .map(StatsMapper::toStatsDto)
+                .toList());
+    }
+
+    private Counter ingested(String endpoint) {
+        return Counter.builder("stats.hits.ingested")
+                .description("Hits stored by the stats server")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+    }
+
+    private Timer queryTimer(boolean unique) {
+        return Timer.builder("stats.query.duration")
+                .description("Duration of hit aggregation queries")
+                .tag("unique", String.valueOf(unique))
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 }
\ No newline at end of file
@@ -10,5 +10,7 @@ public interface StatsService {
 
     EndHitDto hit(EndHitDto endpointHit);
 
+    List<EndHitDto> hitAll(List<EndHitDto> endpointHits);
+
     List<StatDto> get(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique);
 }
\ No newline at end of file
@@ -0,0 +1,191 @@
+package ru.practicum.explore.server.tools;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Распаковывает тела запросов с Content-Encoding: gzip, например пачки хитов от StatsClient.
+ * Сжатие ответов настраивается через server.compression.
+ * <p>
+ * Тело распаковывается целиком до передачи запроса дальше и не больше max-inflated-bytes:
+ * на большее сервер отвечает 413, на повреждённый gzip — 400.
+ */
+@Component
+public class GzipRequestFilter extends OncePerRequestFilter {
+
+    public static final int DEFAULT_MAX_INFLATED_BYTES = 10 * 1024 * 1024;
+
+    private static final String GZIP = "gzip";
+
+    private final int maxInflatedBytes;
+
+    public GzipRequestFilter() {
+        this(DEFAULT_MAX_INFLATED_BYTES);
+    }
+
+    @Autowired
+    public GzipRequestFilter(@Value("${stats.gzip.max-inflated-bytes:10485760}") int maxInflatedBytes) {
+        this.maxInflatedBytes = maxInflatedBytes;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain chain) throws ServletException, IOException {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (encoding == null || !GZIP.equalsIgnoreCase(encoding.trim())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        byte[] body;
+        try {
+            body = inflate(request.getInputStream());
+        } catch (ZipException | EOFException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Malformed gzip request body");
+            return;
+        } catch (BodyTooLargeException e) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                    "Inflated request body exceeds " + maxInflatedBytes + " bytes");
+            return;
+        }
+        chain.doFilter(new GzipRequestWrapper(request, body), response);
+    }
+
+    private byte[] inflate(InputStream compressed) throws IOException {
+        ByteArrayOutputStream inflated = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (GZIPInputStream gzip = new GZIPInputStream(compressed)) {
+            int read;
+            while ((read = gzip.read(buffer)) != -1) {
+                if (inflated.size() + read > maxInflatedBytes) {
+                    throw new BodyTooLargeException();
+                }
+                inflated.write(buffer, 0, read);
+            }
+        }
+        return inflated.toByteArray();
+    }
+
+    private static class BodyTooLargeException extends IOException {
+    }
+
+    private static class GzipRequestWrapper extends HttpServletRequestWrapper {
+
+        private final ServletInputStream body;
+
+        GzipRequestWrapper(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = new InflatedServletInputStream(body);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return body;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+            return new BufferedReader(new InputStreamReader(body, charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                    || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return null;
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                    || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return Collections.emptyEnumeration();
+            }
+            return super.getHeaders(name);
+        }
+    }
+
+    /* тело уже в памяти: чтение никогда не блокируется, слушатель узнаёт об этом сразу */
+    private static class InflatedServletInputStream extends ServletInputStream {
+
+        private final ByteArrayInputStream delegate;
+
+        InflatedServletInputStream(byte[] body) {
+            this.delegate = new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public int read() {
+            return delegate.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            return delegate.read(buffer, offset, length);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            try {
+                if (!isFinished()) {
+                    readListener.onDataAvailable();
+                }
+                if (isFinished()) {
+                    readListener.onAllDataRead();
+                }
+            } catch (IOException e) {
+                readListener.onError(e);
+            }
+        }
+    }
+}
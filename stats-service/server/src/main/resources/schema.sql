@@ -5,4 +5,8 @@ CREATE TABLE  IF NOT EXISTS hits
     uri       TEXT NOT NULL,
     ip        VARCHAR(45) NOT NULL,
     timestamp timestamp WITHOUT TIME ZONE NOT NULL
-);
\ No newline at end of file
+);
+
+ALTER TABLE hits ADD COLUMN IF NOT EXISTS weight DOUBLE PRECISION NOT NULL DEFAULT 1;
+-- вес 1 / sampleRate дробный: у выборки 0.3 он 3.33, а не 3
+ALTER TABLE hits ALTER COLUMN weight SET DATA TYPE DOUBLE PRECISION;
@@ -1,21 +1,36 @@
 package ru.practicum.explore.server.controller;
 
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.practicum.explore.dto.EndHitDto;
 import ru.practicum.explore.dto.StatDto;
+import ru.practicum.explore.server.config.WireFormatConfig;
 import ru.practicum.explore.server.service.StatisticsServiceImpl;
+import ru.practicum.explore.server.tools.ErrorHandler;
+import ru.practicum.explore.server.tools.GzipRequestFilter;
 import ru.practicum.explore.tools.SimpleDateTimeFormatter;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -36,7 +51,7 @@ class StatsControllerTest {
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(statsController).build();
+        mockMvc = mockMvc(new GzipRequestFilter());
         hitDto.setApp("test-app");
         hitDto.setUri("/test");
         hitDto.setIp("127.0.0.1");
@@ -86,4 +101,114 @@ class StatsControllerTest {
                         .param("unique", "true"))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @Test
+    void hitsShouldAcceptGzipBatch() throws Exception {
+        when(service.hitAll(anyList())).thenReturn(List.of(hitDto, hitDto));
+
+        String batch = "[{\"app\":\"test-app\",\"uri\":\"/test\",\"ip\":\"127.0.0.1\"},"
+                + "{\"app\":\"test-app\",\"uri\":\"/test\",\"ip\":\"127.0.0.2\"}]";
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(batch.getBytes(StandardCharsets.UTF_8));
+        }
+
+        mockMvc.perform(post("/hits")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Content-Encoding", "gzip")
+                        .content(compressed.toByteArray()))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void hitsShouldPassSampleRateToService() throws Exception {
+        when(service.hitAll(anyList())).thenReturn(List.of(hitDto));
+
+        mockMvc.perform(post("/hits")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"app\":\"test-app\",\"uri\":\"/test\",\"ip\":\"127.0.0.1\","
+                                + "\"sampleRate\":0.3}]"))
+                .andExpect(status().isCreated());
+
+        verify(service).hitAll(argThat(hits -> hits.size() == 1 && hits.getFirst().getSampleRate() == 0.3));
+    }
+
+    @Test
+    void hitsShouldRejectGzipBodyInflatingBeyondLimit() throws Exception {
+        MockMvc limited = mockMvc(new GzipRequestFilter(1024));
+
+        limited.perform(post("/hits")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Content-Encoding", "gzip")
+                        .content(gzip(" ".repeat(1_000_000) + "[]")))
+                .andExpect(status().isPayloadTooLarge());
+        verify(service, never()).hitAll(anyList());
+    }
+
+    @Test
+    void hitsShouldRejectMalformedGzipBody() throws Exception {
+        mockMvc.perform(post("/hits")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Content-Encoding", "gzip")
+                        .content("[]".getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void hitsShouldRejectInvalidHit() throws Exception {
+        mockMvc.perform(post("/hits")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"app\":\"test-app\",\"uri\":\"/test\",\"ip\":\"127.0.0.1\"},"
+                                + "{\"app\":\"test-app\",\"ip\":\"127.0.0.2\"}]"))
+                .andExpect(status().isBadRequest());
+        verify(service, never()).hitAll(anyList());
+    }
+
+    @Test
+    void hitShouldRejectSampleRateOutOfRange() throws Exception {
+        mockMvc.perform(post("/hit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"app\":\"test-app\",\"uri\":\"/test\",\"ip\":\"127.0.0.1\","
+                                + "\"sampleRate\":2.0}"))
+                .andExpect(status().isBadRequest());
+        verify(service, never()).hit(any(EndHitDto.class));
+    }
+
+    @Test
+    void hitShouldAcceptAndReturnSmile() throws Exception {
+        when(service.hit(any(EndHitDto.class))).thenReturn(hitDto);
+        SmileMapper smile = new SmileMapper();
+        MediaType smileType = new MediaType("application", "x-jackson-smile");
+
+        byte[] response = mockMvc.perform(post("/hit")
+                        .contentType(smileType)
+                        .accept(smileType)
+                        .content(smile.writeValueAsBytes(hitDto)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(smileType))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        EndHitDto saved = smile.readValue(response, EndHitDto.class);
+        assertEquals("/test", saved.getUri());
+    }
+
+    private MockMvc mockMvc(GzipRequestFilter gzipRequestFilter) {
+        return MockMvcBuilders.standaloneSetup(statsController)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(),
+                        new WireFormatConfig().smileHttpMessageConverter())
+                .setControllerAdvice(new ErrorHandler())
+                .addFilters(gzipRequestFilter)
+                .build();
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return compressed.toByteArray();
+    }
+}
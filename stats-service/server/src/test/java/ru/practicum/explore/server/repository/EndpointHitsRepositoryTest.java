@@ -0,0 +1,80 @@
+package ru.practicum.explore.server.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.explore.dto.EndHitDto;
+import ru.practicum.explore.server.model.EndHitMapper;
+import ru.practicum.explore.server.model.Stats;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class EndpointHitsRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2025, 1, 2, 0, 0);
+
+    @Autowired
+    private EndpointHitsRepository repository;
+
+    @Test
+    void findStatsShouldSumFractionalWeights() {
+        save("/events/1", "10.0.0.1", 0.3);
+        save("/events/1", "10.0.0.2", 0.3);
+        save("/events/1", "10.0.0.3", 0.3);
+        save("/events/2", "10.0.0.1", null);
+
+        Map<String, Long> hits = hits(repository.findStats(START, END, null));
+
+        assertEquals(Map.of("/events/1", 10L, "/events/2", 1L), hits);
+    }
+
+    @Test
+    void findUniqueStatsShouldWeighEachIpOnce() {
+        save("/events/1", "10.0.0.1", 0.5);
+        save("/events/1", "10.0.0.1", 0.5);
+        save("/events/1", "10.0.0.1", 0.5);
+        save("/events/1", "10.0.0.2", null);
+        save("/events/2", "10.0.0.1", null);
+
+        Map<String, Long> unique = hits(repository.findUniqueStats(START, END, List.of("/events/1")));
+        Map<String, Long> total = hits(repository.findStats(START, END, List.of("/events/1")));
+
+        assertEquals(Map.of("/events/1", 3L), unique);
+        assertEquals(Map.of("/events/1", 7L), total);
+    }
+
+    @Test
+    void findUniqueStatsShouldOrderByWeightedCount() {
+        save("/events/1", "10.0.0.1", null);
+        save("/events/1", "10.0.0.2", null);
+        save("/events/2", "10.0.0.3", 0.25);
+
+        List<Stats> stats = repository.findUniqueStats(START, END, null);
+
+        assertEquals(List.of("/events/2", "/events/1"), stats.stream().map(Stats::getUri).toList());
+        assertEquals(4L, stats.getFirst().getHits());
+    }
+
+    private void save(String uri, String ip, Double sampleRate) {
+        repository.save(EndHitMapper.toEndpointHit(EndHitDto.builder()
+                .app("ewm-main-service")
+                .uri(uri)
+                .ip(ip)
+                .timestamp("2025-01-01 12:00:00")
+                .sampleRate(sampleRate)
+                .build()));
+    }
+
+    private static Map<String, Long> hits(List<Stats> stats) {
+        return stats.stream().collect(Collectors.toMap(Stats::getUri, Stats::getHits));
+    }
+}
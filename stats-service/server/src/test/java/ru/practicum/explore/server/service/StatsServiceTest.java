@@ -1,10 +1,14 @@
 package ru.practicum.explore.server.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.explore.dto.EndHitDto;
 import ru.practicum.explore.dto.StatDto;
@@ -26,6 +30,9 @@ class StatsServiceTest {
     @Mock
     private EndpointHitsRepository endpointHitsRepository;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private StatisticsServiceImpl statsService;
 
@@ -68,6 +75,27 @@ class StatsServiceTest {
         verify(endpointHitsRepository, times(1)).save(any(EndpointHit.class));
     }
 
+    @Test
+    void hitShouldKeepFractionalWeightOfSampledHit() {
+        hitDto.setSampleRate(0.3);
+        when(endpointHitsRepository.save(any(EndpointHit.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        EndHitDto result = statsService.hit(hitDto);
+
+        ArgumentCaptor<EndpointHit> saved = ArgumentCaptor.forClass(EndpointHit.class);
+        verify(endpointHitsRepository).save(saved.capture());
+        assertEquals(1 / 0.3, saved.getValue().getWeight(), 1e-9);
+        assertEquals(0.3, result.getSampleRate(), 1e-9);
+    }
+
+    @Test
+    void hitShouldRejectSampleRateOutOfRange() {
+        hitDto.setSampleRate(1.5);
+
+        assertThrows(IllegalArgumentException.class, () -> statsService.hit(hitDto));
+        verify(endpointHitsRepository, never()).save(any(EndpointHit.class));
+    }
+
     @Test
     void getWithUniqueFalseShouldReturnStats() {
         LocalDateTime start = LocalDateTime.now().minusDays(1);